@@ -0,0 +1,169 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A* search over a NavGrid using tile costs and a Manhattan distance heuristic, tightened
+ * with a LandmarkOracle when one is given. The open
+ * set is an IndexedMinHeap of packed cells, so no nodes are boxed or allocated per search.
+ * Among cells with equal f = g + h the one closest to the goal is expanded first, which
+ * lets the search run straight down one of the many equally short paths instead of
+ * widening across all of them.
+ *
+ * A search can also be run in slices: start sets it up and each call to resume expands at
+ * most a given number of nodes, so a long search can be spread over several game ticks.
+ */
+public class AStar implements Pathfinder {
+
+    public static final int SEARCHING = 0;
+    public static final int FOUND = 1;
+    public static final int NOT_FOUND = 2;
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final LandmarkOracle landmarks;
+    private final IndexedMinHeap open;
+    private final int[] g;
+    private final int[] prev;
+    private final int[] seen;
+    private final int[] closed;
+    private final int[] path;
+    private int epoch;
+    private int start;
+    private int goal;
+    private int status = NOT_FOUND;
+    private int pathLength;
+    private int expanded;
+
+    public AStar(NavGrid grid) {
+        this(grid, null);
+    }
+
+    /** @param landmarks distance oracle for grid used to tighten the heuristic, or null */
+    public AStar(NavGrid grid, LandmarkOracle landmarks) {
+        this.grid = grid;
+        this.landmarks = landmarks;
+        this.open = new IndexedMinHeap(grid.size());
+        this.g = new int[grid.size()];
+        this.prev = new int[grid.size()];
+        this.seen = new int[grid.size()];
+        this.closed = new int[grid.size()];
+        this.path = new int[grid.size()];
+    }
+
+    @Override
+    public boolean findPath(int start, int goal) {
+        start(start, goal);
+        return resume(Integer.MAX_VALUE) == FOUND;
+    }
+
+    /** Sets up a search from start to goal without expanding anything yet. */
+    public void start(int start, int goal) {
+        nextEpoch();
+        open.clear();
+        this.start = start;
+        this.goal = goal;
+        status = SEARCHING;
+        pathLength = 0;
+        expanded = 0;
+
+        g[start] = 0;
+        seen[start] = epoch;
+        open.push(start, key(0, heuristic(start, grid.x(start), grid.y(start), grid.x(goal), grid.y(goal))));
+    }
+
+    /**
+     * Continues the current search for at most budget expansions.
+     * @return SEARCHING if the budget ran out first, otherwise FOUND or NOT_FOUND
+     */
+    public int resume(int budget) {
+        if (status != SEARCHING) {
+            return status;
+        }
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+
+        while (!open.isEmpty()) {
+            if (budget-- <= 0) {
+                return SEARCHING;
+            }
+            int current = open.pop();
+            closed[current] = epoch;
+            expanded++;
+            if (current == goal) {
+                for (int step = goal; step != start; step = prev[step]) {
+                    path[pathLength++] = step;
+                }
+                status = FOUND;
+                return status;
+            }
+
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (closed[next] == epoch) {
+                    continue;
+                }
+                int cost = g[current] + grid.cost(nx, ny);
+                if (seen[next] == epoch && cost >= g[next]) {
+                    continue;
+                }
+                seen[next] = epoch;
+                g[next] = cost;
+                prev[next] = current;
+                open.push(next, key(cost, heuristic(next, nx, ny, goalX, goalY)));
+            }
+        }
+        status = NOT_FOUND;
+        return status;
+    }
+
+    /** Start cell of the current or last search. */
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int pathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int pathCell(int i) {
+        return path[pathLength - 1 - i];
+    }
+
+    @Override
+    public int expanded() {
+        return expanded;
+    }
+
+    private int heuristic(int cell, int x, int y, int goalX, int goalY) {
+        int steps = Math.abs(x - goalX) + Math.abs(y - goalY);
+        if (landmarks != null) {
+            steps = Math.max(steps, landmarks.lowerBound(cell, goal));
+        }
+        return steps * NavGrid.MIN_COST;
+    }
+
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            epoch = 1;
+        }
+    }
+}
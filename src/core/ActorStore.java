@@ -0,0 +1,151 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Holds every actor in the world, Hugs and the player, as parallel int arrays rather than one
+ * object each. Actors are named by handles that stay valid until the actor is removed, and
+ * live in slots 0 to size() - 1 with no gaps, so passes over all actors are plain loops over
+ * arrays. Adding and removing are O(1): removing moves the last actor into the freed slot.
+ */
+public class ActorStore {
+
+    public static final int HUG = 0;
+    public static final int PLAYER = 1;
+
+    /** Moved toward its target on its last step. */
+    public static final int CHASING = 0;
+    /** Wanted to move but its next tile was taken. */
+    public static final int WAITING = 1;
+    /** Has no route to its target. */
+    public static final int LOST = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] speeds = new int[INITIAL_CAPACITY];
+    private int[] states = new int[INITIAL_CAPACITY];
+    private int[] kinds = new int[INITIAL_CAPACITY];
+    private int[] handleOfSlot = new int[INITIAL_CAPACITY];
+    private int[] slotOfHandle = new int[INITIAL_CAPACITY];
+    private int[] freeHandles = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int handleCount;
+    private int size;
+
+    /**
+     * Adds an actor in the CHASING state.
+     * @param speed how many ticks each of its steps takes; 1 steps every tick
+     * @return the new actor's handle
+     */
+    public int add(int kind, int x, int y, int speed) {
+        if (size == xs.length) {
+            grow();
+        }
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (handleCount == slotOfHandle.length) {
+                slotOfHandle = Arrays.copyOf(slotOfHandle, handleCount * 2);
+            }
+            handle = handleCount++;
+        }
+
+        int slot = size++;
+        xs[slot] = x;
+        ys[slot] = y;
+        speeds[slot] = speed;
+        states[slot] = CHASING;
+        kinds[slot] = kind;
+        handleOfSlot[slot] = handle;
+        slotOfHandle[handle] = slot;
+        return handle;
+    }
+
+    /** Removes an actor. The last actor moves into its slot; other handles stay valid. */
+    public void remove(int handle) {
+        int slot = slotOfHandle[handle];
+        int last = --size;
+        if (slot != last) {
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            speeds[slot] = speeds[last];
+            states[slot] = states[last];
+            kinds[slot] = kinds[last];
+            handleOfSlot[slot] = handleOfSlot[last];
+            slotOfHandle[handleOfSlot[slot]] = slot;
+        }
+        slotOfHandle[handle] = NO_SLOT;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < handleCount && slotOfHandle[handle] != NO_SLOT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int slot(int handle) {
+        return slotOfHandle[handle];
+    }
+
+    public int handle(int slot) {
+        return handleOfSlot[slot];
+    }
+
+    public int x(int slot) {
+        return xs[slot];
+    }
+
+    public int y(int slot) {
+        return ys[slot];
+    }
+
+    public int speed(int slot) {
+        return speeds[slot];
+    }
+
+    public int state(int slot) {
+        return states[slot];
+    }
+
+    public int kind(int slot) {
+        return kinds[slot];
+    }
+
+    public void moveTo(int slot, int x, int y) {
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    public void setSpeed(int slot, int speed) {
+        speeds[slot] = speed;
+    }
+
+    public void setState(int slot, int state) {
+        states[slot] = state;
+    }
+
+    /** Bytes held by the arrays, which is all the memory the store uses. */
+    public long memoryBytes() {
+        return 4L * (6L * xs.length + slotOfHandle.length + freeHandles.length);
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        states = Arrays.copyOf(states, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        handleOfSlot = Arrays.copyOf(handleOfSlot, capacity);
+    }
+}
@@ -0,0 +1,112 @@
+package core;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Generates worlds for a range of seeds on a fork/join pool, one task per seed, and hands each
+ * finished WorldGenerator to a consumer on the calling thread as soon as it is ready. At most
+ * maxInFlight worlds exist at once, generating or waiting for the consumer, so memory stays
+ * bounded however many seeds are asked for and however slow the consumer is.
+ */
+public class BatchWorldGenerator {
+
+    /** How a batch went. */
+    public record Report(long worlds, long nanos) {
+        public double worldsPerSecond() {
+            return worlds * 1e9 / Math.max(1, nanos);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    /**
+     * @param pool the pool to generate on
+     * @param maxInFlight how many worlds may exist at once; pool parallelism times two keeps
+     *                    every worker busy while the consumer catches up
+     */
+    public BatchWorldGenerator(ForkJoinPool pool, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.pool = pool;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public BatchWorldGenerator(ForkJoinPool pool) {
+        this(pool, pool.getParallelism() * 2);
+    }
+
+    /**
+     * Generates a width x height world for every seed from firstSeed to firstSeed + count - 1
+     * and passes each generator, with its world generated, to consumer. Worlds arrive in the
+     * order they finish, not in seed order; each one depends only on its seed. If a world or
+     * the consumer throws, no more worlds are started and the exception is rethrown here once
+     * the running ones finish.
+     */
+    public Report generate(long firstSeed, long count, int width, int height, Consumer<WorldGenerator> consumer) {
+        Semaphore permits = new Semaphore(maxInFlight);
+        BlockingQueue<Object> finished = new LinkedBlockingQueue<>();
+        long start = System.nanoTime();
+        long submitted = 0;
+        long delivered = 0;
+        long running = 0;
+        Throwable failure = null;
+
+        while (true) {
+            while (failure == null && submitted < count && permits.tryAcquire()) {
+                long seed = firstSeed + submitted++;
+                running++;
+                pool.execute(() -> finished.add(generateOne(seed, width, height)));
+            }
+            if (running == 0) {
+                break;
+            }
+
+            Object result = take(finished);
+            running--;
+            try {
+                if (result instanceof Throwable t) {
+                    failure = failure == null ? t : failure;
+                } else if (failure == null) {
+                    consumer.accept((WorldGenerator) result);
+                    delivered++;
+                }
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            } finally {
+                permits.release();
+            }
+        }
+
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        }
+        return new Report(delivered, System.nanoTime() - start);
+    }
+
+    private static Object generateOne(long seed, int width, int height) {
+        try {
+            WorldGenerator generator = new WorldGenerator(width, height, seed);
+            generator.generateWorld();
+            return generator;
+        } catch (RuntimeException | Error e) {
+            return e;
+        }
+    }
+
+    private static Object take(BlockingQueue<Object> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a world", e);
+        }
+    }
+}
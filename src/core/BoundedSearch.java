@@ -0,0 +1,212 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search that never looks further than a fixed number of steps from the
+ * start. If the goal lies inside that radius the path is exact. Otherwise it returns the path
+ * to the reached cell that looks closest to the goal's room, and the Hug moves greedily
+ * toward it. Closeness is estimated from the room graph: the Manhattan distance to an
+ * entrance of the cell's region plus the graph distance from that entrance to the goal's
+ * region, which is recomputed only when the goal moves. A search therefore costs at most
+ * about 2 * radius^2 cells however far away the goal is.
+ */
+public class BoundedSearch implements Pathfinder {
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final RoomGraph rooms;
+    private final int radius;
+    private final int[] nodeDist;
+    private final IndexedMinHeap nodeOpen;
+    private int estimateGoal = -1;
+    private final int[] queue;
+    private final int[] prev;
+    private final int[] dist;
+    private final int[] visited;
+    private final int[] path;
+    private int epoch;
+    private int pathLength;
+    private int expanded;
+    private boolean exact;
+
+    /**
+     * @param rooms used to steer distant searches toward the goal's room, or null to steer
+     * by Manhattan distance to the goal alone
+     */
+    public BoundedSearch(NavGrid grid, RoomGraph rooms, int radius) {
+        this.grid = grid;
+        this.rooms = rooms;
+        this.radius = radius;
+        this.queue = new int[grid.size()];
+        this.prev = new int[grid.size()];
+        this.dist = new int[grid.size()];
+        this.visited = new int[grid.size()];
+        this.path = new int[grid.size()];
+
+        int nodes = rooms == null ? 0 : rooms.nodeCount();
+        this.nodeDist = new int[nodes];
+        this.nodeOpen = new IndexedMinHeap(Math.max(nodes, 1));
+    }
+
+    public int radius() {
+        return radius;
+    }
+
+    /** Whether the last path found ends at the goal rather than at the edge of the radius. */
+    public boolean exact() {
+        return exact;
+    }
+
+    /**
+     * Searches toward goal. Returns false only if no cell inside the radius looks closer to
+     * the goal than start, even though the goal may be reachable; World then steps its Hug
+     * along the flow field. A true result may be a partial path; see exact.
+     */
+    @Override
+    public boolean findPath(int start, int goal) {
+        nextEpoch();
+        pathLength = 0;
+        expanded = 0;
+        exact = false;
+
+        updateEstimates(goal);
+        int bestCell = start;
+        int bestScore = estimate(start, goal);
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = epoch;
+        dist[start] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            expanded++;
+            if (current == goal) {
+                exact = true;
+                bestCell = goal;
+                break;
+            }
+            int score = estimate(current, goal);
+            if (score < bestScore) {
+                bestScore = score;
+                bestCell = current;
+            }
+            if (dist[current] == radius) {
+                continue;
+            }
+
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (visited[next] == epoch) {
+                    continue;
+                }
+                visited[next] = epoch;
+                prev[next] = current;
+                dist[next] = dist[current] + 1;
+                queue[tail++] = next;
+            }
+        }
+
+        if (bestCell == start) {
+            return start == goal;
+        }
+        for (int step = bestCell; step != start; step = prev[step]) {
+            path[pathLength++] = step;
+        }
+        return true;
+    }
+
+    /** Estimated steps from cell to goal, the measure findPath steers by. */
+    public int estimatedDistance(int cell, int goal) {
+        updateEstimates(goal);
+        return estimate(cell, goal);
+    }
+
+    /** Estimated steps from cell to goal. updateEstimates must have been called for goal. */
+    private int estimate(int cell, int goal) {
+        if (rooms == null || rooms.region(cell) == rooms.region(goal)) {
+            return manhattan(cell, goal);
+        }
+        int region = rooms.region(cell);
+        int best = Integer.MAX_VALUE;
+        for (int i = rooms.regionNodeStart(region); i < rooms.regionNodeEnd(region); i++) {
+            int n = rooms.regionNode(i);
+            if (nodeDist[n] != Integer.MAX_VALUE) {
+                best = Math.min(best, manhattan(cell, rooms.nodeCell(n)) + nodeDist[n]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Dijkstra over the room graph from the entrances of the goal's region, each starting at
+     * its Manhattan distance to the goal.
+     */
+    private void updateEstimates(int goal) {
+        if (rooms == null || goal == estimateGoal) {
+            return;
+        }
+        estimateGoal = goal;
+        Arrays.fill(nodeDist, Integer.MAX_VALUE);
+        nodeOpen.clear();
+
+        int region = rooms.region(goal);
+        if (region < 0) {
+            return;
+        }
+        for (int i = rooms.regionNodeStart(region); i < rooms.regionNodeEnd(region); i++) {
+            int n = rooms.regionNode(i);
+            nodeDist[n] = manhattan(rooms.nodeCell(n), goal);
+            nodeOpen.push(n, nodeDist[n]);
+        }
+        while (!nodeOpen.isEmpty()) {
+            int n = nodeOpen.pop();
+            for (int e = rooms.edgeStart(n); e < rooms.edgeEnd(n); e++) {
+                int m = rooms.edgeTarget(e);
+                int d = nodeDist[n] + rooms.edgeCost(e);
+                if (d < nodeDist[m]) {
+                    nodeDist[m] = d;
+                    nodeOpen.push(m, d);
+                }
+            }
+        }
+    }
+
+    private int manhattan(int a, int b) {
+        return Math.abs(grid.x(a) - grid.x(b)) + Math.abs(grid.y(a) - grid.y(b));
+    }
+
+    @Override
+    public int pathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int pathCell(int i) {
+        return path[pathLength - 1 - i];
+    }
+
+    @Override
+    public int expanded() {
+        return expanded;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package core;
+
+import utils.RandomUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The cells of a FloorIndex grouped by their ConnectivityIndex component, so picking a random
+ * cell in a given component is a single draw. Each component's cells sit in their own slice
+ * of one array, sized to the whole component so it can never overflow, and adding or removing
+ * a cell is O(1) while the components stay as they are.
+ *
+ * Any change in passability may merge or split components, so it drops the grouping, which is
+ * rebuilt from the FloorIndex on the next pick in time linear in the number of cells it holds.
+ * While it is stale, add and remove do nothing.
+ */
+public class ComponentFloorIndex {
+
+    private static final int ABSENT = -1;
+
+    private final FloorIndex floor;
+    private final ConnectivityIndex connectivity;
+    private final int[] cells;
+    private final int[] positions;
+    private final int[] sliceStart;
+    private final int[] sliceSize;
+    private int[] roots = new int[16];
+    private int rootCount;
+    private int used;
+    private long version = -1;
+
+    /** Groups the cells of floor, which must hold only passable cells of connectivity's grid. */
+    public ComponentFloorIndex(FloorIndex floor, ConnectivityIndex connectivity, int cellCount) {
+        this.floor = floor;
+        this.connectivity = connectivity;
+        this.cells = new int[cellCount];
+        this.positions = new int[cellCount];
+        this.sliceStart = new int[cellCount];
+        this.sliceSize = new int[cellCount];
+        Arrays.fill(positions, ABSENT);
+        Arrays.fill(sliceStart, ABSENT);
+    }
+
+    /** Records that cell was added to the FloorIndex. */
+    public void add(int cell) {
+        if (version != connectivity.version() || positions[cell] != ABSENT) {
+            return;
+        }
+        int root = connectivity.component(cell);
+        if (root < 0) {
+            return;
+        }
+        if (sliceStart[root] == ABSENT) {
+            if (rootCount == roots.length) {
+                roots = Arrays.copyOf(roots, rootCount * 2);
+            }
+            roots[rootCount++] = root;
+            sliceStart[root] = used;
+            sliceSize[root] = 0;
+            used += connectivity.componentSize(cell);
+        }
+        int position = sliceStart[root] + sliceSize[root]++;
+        cells[position] = cell;
+        positions[cell] = position;
+    }
+
+    /** Records that cell was removed from the FloorIndex, moving the last of its slice into its place. */
+    public void remove(int cell) {
+        if (version != connectivity.version() || positions[cell] == ABSENT) {
+            return;
+        }
+        int root = connectivity.component(cell);
+        int position = positions[cell];
+        int last = cells[sliceStart[root] + --sliceSize[root]];
+        cells[position] = last;
+        positions[last] = position;
+        positions[cell] = ABSENT;
+    }
+
+    /** A random cell of the FloorIndex in the same component as cell, or ABSENT if there is none. */
+    public int randomCell(int cell, Random random) {
+        if (version != connectivity.version()) {
+            rebuild();
+        }
+        int root = connectivity.component(cell);
+        if (root < 0 || sliceStart[root] == ABSENT || sliceSize[root] == 0) {
+            return ABSENT;
+        }
+        return cells[sliceStart[root] + RandomUtils.uniform(random, sliceSize[root])];
+    }
+
+    private void rebuild() {
+        for (int i = 0; i < rootCount; i++) {
+            int root = roots[i];
+            for (int p = sliceStart[root]; p < sliceStart[root] + sliceSize[root]; p++) {
+                positions[cells[p]] = ABSENT;
+            }
+            sliceStart[root] = ABSENT;
+        }
+        rootCount = 0;
+        used = 0;
+        connectivity.refresh();
+        version = connectivity.version();
+        for (int i = 0; i < floor.size(); i++) {
+            add(floor.get(i));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package core;
+
+/**
+ * Connected components of the passable cells of a NavGrid, kept in a union-find forest.
+ * Two cells can be checked for reachability in near-constant time, which lets a search
+ * between different components be skipped instead of flooding the start's component.
+ *
+ * Opening a cell is merged in straight away. Closing a cell can split a component, which a
+ * union-find cannot undo, so it marks the index stale and it is rebuilt on the next query.
+ */
+public class ConnectivityIndex {
+
+    private final NavGrid grid;
+    private final int[] parent;
+    private final int[] size;
+    private boolean stale;
+    private long version;
+
+    public ConnectivityIndex(NavGrid grid) {
+        this.grid = grid;
+        this.parent = new int[grid.size()];
+        this.size = new int[grid.size()];
+        rebuild();
+    }
+
+    public boolean connected(int a, int b) {
+        return component(a) == component(b);
+    }
+
+    /** Rebuilds the index now if a cell was closed since the last rebuild. */
+    public void refresh() {
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Same answer as connected, but never writes to the index, so several threads may call
+     * it at once. The index must be up to date, see refresh.
+     */
+    public boolean sameComponent(int a, int b) {
+        if (!grid.passable(grid.x(a), grid.y(a)) || !grid.passable(grid.x(b), grid.y(b))) {
+            return false;
+        }
+        return root(a) == root(b);
+    }
+
+    /** Representative cell of the component containing cell, or -1 if cell is blocked. */
+    public int component(int cell) {
+        refresh();
+        if (!grid.passable(grid.x(cell), grid.y(cell))) {
+            return -1;
+        }
+        return find(cell);
+    }
+
+    /** Number of cells in the component containing cell, or 0 if cell is blocked. */
+    public int componentSize(int cell) {
+        int root = component(cell);
+        return root < 0 ? 0 : size[root];
+    }
+
+    /**
+     * Counts calls to cellChanged. While it stays the same, every cell keeps its component and
+     * every component its representative.
+     */
+    public long version() {
+        return version;
+    }
+
+    /** Records that cell changed passability. Call after the tile has been updated. */
+    public void cellChanged(int cell) {
+        version++;
+        if (stale) {
+            return;
+        }
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        if (!grid.passable(x, y)) {
+            stale = true;
+            return;
+        }
+        parent[cell] = cell;
+        size[cell] = 1;
+        joinNeighbour(cell, x + 1, y);
+        joinNeighbour(cell, x - 1, y);
+        joinNeighbour(cell, x, y + 1);
+        joinNeighbour(cell, x, y - 1);
+    }
+
+    private void rebuild() {
+        for (int cell = 0; cell < parent.length; cell++) {
+            parent[cell] = cell;
+            size[cell] = 1;
+        }
+        for (int x = 0; x < grid.width(); x++) {
+            for (int y = 0; y < grid.height(); y++) {
+                if (grid.passable(x, y)) {
+                    int cell = grid.cell(x, y);
+                    joinNeighbour(cell, x + 1, y);
+                    joinNeighbour(cell, x, y + 1);
+                }
+            }
+        }
+        stale = false;
+    }
+
+    private void joinNeighbour(int cell, int nx, int ny) {
+        if (grid.inBounds(nx, ny) && grid.passable(nx, ny)) {
+            union(cell, grid.cell(nx, ny));
+        }
+    }
+
+    private int root(int cell) {
+        while (parent[cell] != cell) {
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    private int find(int cell) {
+        int root = cell;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[cell] != root) {
+            int next = parent[cell];
+            parent[cell] = root;
+            cell = next;
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+}
@@ -0,0 +1,238 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Windowed Hierarchical Cooperative A*. Hugs plan one at a time, in list order, through
+ * space and time for the next few ticks. Each plan is written to a reservation table that
+ * later Hugs must route around, so Hugs fan out across parallel corridors instead of
+ * queueing behind each other. The search is guided by the flow field's exact distances to
+ * the player, which stand in for the abstract search of the original algorithm.
+ *
+ * Each Hug expands at most a fixed number of nodes, so a tick costs time linear in the
+ * number of Hugs.
+ */
+public class CooperativePlanner {
+
+    public static final int DEFAULT_WINDOW = 8;
+    public static final int DEFAULT_MAX_NODES = 1024;
+
+    private static final int[] DX = {1, -1, 0, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1, 0};
+
+    private final NavGrid grid;
+    private final FlowField field;
+    private final int window;
+    private final int maxNodes;
+    private final ReservationTable reservations = new ReservationTable(1024);
+    private final IndexedMinHeap open;
+
+    private final int[] nodeCell;
+    private final int[] nodeTime;
+    private final int[] nodeParent;
+    private int nodeCount;
+
+    private final long[] slotKey;
+    private final int[] slotNode;
+    private final int[] slotStamp;
+    private final int slotMask;
+    private int epoch;
+
+    private final int[] path;
+    private int expanded;
+
+    public CooperativePlanner(NavGrid grid, FlowField field) {
+        this(grid, field, DEFAULT_WINDOW, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * @param window how many ticks ahead each Hug plans
+     * @param maxNodes the most space-time nodes one Hug's search may create
+     */
+    public CooperativePlanner(NavGrid grid, FlowField field, int window, int maxNodes) {
+        this.grid = grid;
+        this.field = field;
+        this.window = window;
+        this.maxNodes = maxNodes;
+        this.open = new IndexedMinHeap(maxNodes);
+        this.nodeCell = new int[maxNodes];
+        this.nodeTime = new int[maxNodes];
+        this.nodeParent = new int[maxNodes];
+        int slots = Integer.highestOneBit(maxNodes * 2 - 1) * 2;
+        this.slotKey = new long[slots];
+        this.slotNode = new int[slots];
+        this.slotStamp = new int[slots];
+        this.slotMask = slots - 1;
+        this.path = new int[window + 1];
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /**
+     * Fills intents[i] with the cell Hug i should step to next, which is its own cell if it
+     * should wait, or FlowField.UNREACHABLE if it cannot reach goal. The flow field must
+     * already be up to date for goal.
+     */
+    public void plan(int[] cells, int count, int goal, int[] intents) {
+        reservations.clear();
+        expanded = 0;
+        for (int i = 0; i < count; i++) {
+            reservations.reserve(cells[i], 0, i);
+        }
+        for (int i = 0; i < count; i++) {
+            intents[i] = planHug(i, cells[i], goal);
+        }
+    }
+
+    /** Nodes expanded over every Hug by the last call to plan. */
+    public int expanded() {
+        return expanded;
+    }
+
+    /** Reservations made by the last call to plan. */
+    public int reservations() {
+        return reservations.size();
+    }
+
+    private int planHug(int hug, int start, int goal) {
+        if (start == goal) {
+            return goal;
+        }
+        if (field.distance(start) == FlowField.UNREACHABLE) {
+            holdFrom(hug, start, 1);
+            return FlowField.UNREACHABLE;
+        }
+
+        int end = search(hug, start, goal);
+        int length = nodeTime[end];
+        for (int node = end; node >= 0; node = nodeParent[node]) {
+            path[nodeTime[node]] = nodeCell[node];
+        }
+        for (int t = 1; t <= length; t++) {
+            reservations.reserve(path[t], t, hug);
+        }
+        if (path[length] != goal) {
+            holdFrom(hug, path[length], length + 1);
+        }
+        return length == 0 ? start : path[1];
+    }
+
+    private void holdFrom(int hug, int cell, int from) {
+        for (int t = from; t <= window; t++) {
+            reservations.reserve(cell, t, hug);
+        }
+    }
+
+    /**
+     * Space-time A* from start. Returns the node where the plan ends: the goal, the end of
+     * the window, or if the node budget runs out, the node that got closest to the goal.
+     */
+    private int search(int hug, int start, int goal) {
+        nextEpoch();
+        open.clear();
+        nodeCount = 0;
+
+        int first = addNode(start, 0, -1);
+        open.push(first, key(0, field.distance(start)));
+        int best = first;
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            expanded++;
+            int cell = nodeCell[node];
+            int time = nodeTime[node];
+            int h = field.distance(cell);
+            if (cell == goal || time == window) {
+                return node;
+            }
+            if (h < field.distance(nodeCell[best])
+                    || (h == field.distance(nodeCell[best]) && time > nodeTime[best])) {
+                best = node;
+            }
+
+            int cx = grid.x(cell);
+            int cy = grid.y(cell);
+            for (int i = 0; i < DX.length; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                int nextTime = time + 1;
+                if (next != goal && blocked(hug, cell, next, time)) {
+                    continue;
+                }
+                int nextH = field.distance(next);
+                if (nextH == FlowField.UNREACHABLE || findNode(next, nextTime) >= 0) {
+                    continue;
+                }
+                if (nodeCount == maxNodes) {
+                    return best;
+                }
+                int child = addNode(next, nextTime, node);
+                open.push(child, key(nextTime + nextH, nextH));
+            }
+        }
+        return best;
+    }
+
+    /** Whether another Hug holds next at time + 1, or is swapping places with this one. */
+    private boolean blocked(int hug, int cell, int next, int time) {
+        int holder = reservations.owner(next, time + 1);
+        if (holder != ReservationTable.FREE && holder != hug) {
+            return true;
+        }
+        if (next == cell) {
+            return false;
+        }
+        int oncoming = reservations.owner(next, time);
+        return oncoming != ReservationTable.FREE && oncoming != hug
+                && reservations.owner(cell, time + 1) == oncoming;
+    }
+
+    private int addNode(int cell, int time, int parent) {
+        int node = nodeCount++;
+        nodeCell[node] = cell;
+        nodeTime[node] = time;
+        nodeParent[node] = parent;
+
+        long key = stateKey(cell, time);
+        int slot = slot(key);
+        slotStamp[slot] = epoch;
+        slotKey[slot] = key;
+        slotNode[slot] = node;
+        return node;
+    }
+
+    private int findNode(int cell, int time) {
+        int slot = slot(stateKey(cell, time));
+        return slotStamp[slot] == epoch ? slotNode[slot] : -1;
+    }
+
+    private int slot(long key) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & slotMask;
+        while (slotStamp[slot] == epoch && slotKey[slot] != key) {
+            slot = (slot + 1) & slotMask;
+        }
+        return slot;
+    }
+
+    private void nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(slotStamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    private static long stateKey(int cell, int time) {
+        return ((long) time << 32) | cell;
+    }
+
+    private static long key(int f, int h) {
+        return ((long) f << 32) | h;
+    }
+}
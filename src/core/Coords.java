@@ -0,0 +1,24 @@
+package core;
+
+/**
+ * Packs an (x, y) pair into one long, for code that handles many coordinates and should not
+ * allocate a Position for each. Unlike NavGrid cells, packed coordinates need no grid height
+ * and may be negative.
+ */
+public final class Coords {
+
+    private Coords() {
+    }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int x(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int y(long packed) {
+        return (int) packed;
+    }
+}
@@ -0,0 +1,56 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A set of cells, kept as a dense array plus each cell's position in it, so adding, removing,
+ * testing and picking the i-th cell are all O(1). World uses one to hold every floor cell no
+ * actor stands on, which makes picking a random free floor tile a single draw.
+ */
+public class FloorIndex {
+
+    private static final int ABSENT = -1;
+
+    private final int[] cells;
+    private final int[] positions;
+    private int size;
+
+    public FloorIndex(int cellCount) {
+        this.cells = new int[cellCount];
+        this.positions = new int[cellCount];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return positions[cell] != ABSENT;
+    }
+
+    /** The cell at position i, 0 <= i < size(). Positions change as cells are removed. */
+    public int get(int i) {
+        return cells[i];
+    }
+
+    public void add(int cell) {
+        if (positions[cell] != ABSENT) {
+            return;
+        }
+        positions[cell] = size;
+        cells[size++] = cell;
+    }
+
+    /** Removes cell, moving the last cell into its position. */
+    public void remove(int cell) {
+        int position = positions[cell];
+        if (position == ABSENT) {
+            return;
+        }
+        int last = cells[--size];
+        cells[position] = last;
+        positions[last] = position;
+        positions[cell] = ABSENT;
+    }
+}
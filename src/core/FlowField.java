@@ -0,0 +1,230 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Distances from every cell to a single goal cell. Any number of Hugs can read their next
+ * step toward the goal in constant time instead of each running its own search.
+ *
+ * When cells change passability the field is repaired in the style of Lifelong Planning
+ * A*: every cell keeps its current distance (g) and a one-step lookahead (rhs), a cell is
+ * queued when the two disagree, and the queue is drained in order of min(g, rhs), so only
+ * cells whose distance actually changes are revisited.
+ *
+ * Moving the goal by one tile changes the distance of every reachable cell, since on a grid
+ * the distances to two neighbouring cells always differ in parity. That case is handled by
+ * a fresh breadth-first search over the goal's region. Values are stamped with the build
+ * they belong to, so neither case ever clears or scans the whole map. A repair that turns
+ * out to touch a large share of the region also falls back to a fresh search, which is
+ * cheaper per cell than the priority-queue repair.
+ */
+public class FlowField {
+
+    public static final int UNREACHABLE = -1;
+
+    private static final int INF = Integer.MAX_VALUE / 2;
+    private static final int REBUILD_SHARE = 4;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final int[] g;
+    private final int[] rhs;
+    private final int[] stamp;
+    private final int[] queue;
+    private final IndexedMinHeap open;
+    private int epoch;
+    private int goal = -1;
+    private int reachable;
+    private int expanded;
+
+    public FlowField(NavGrid grid) {
+        this.grid = grid;
+        this.g = new int[grid.size()];
+        this.rhs = new int[grid.size()];
+        this.stamp = new int[grid.size()];
+        this.queue = new int[grid.size()];
+        this.open = new IndexedMinHeap(grid.size());
+    }
+
+    /**
+     * Brings the field up to date for goal. The first call builds the whole field, later
+     * calls only repair what changed since the previous one.
+     */
+    public void update(int goal) {
+        if (goal != this.goal) {
+            build(goal);
+            return;
+        }
+        expanded = 0;
+        repair();
+    }
+
+    /** Recomputes the distance of every cell reachable from goal, dropping pending repairs. */
+    public void build(int goal) {
+        nextEpoch();
+        this.goal = goal;
+        expanded = 0;
+        open.clear();
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = goal;
+        set(goal, 0, 0);
+
+        while (head < tail) {
+            int current = queue[head++];
+            expanded++;
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            int nextDist = g[current] + 1;
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (stamp[next] == epoch) {
+                    continue;
+                }
+                set(next, nextDist, nextDist);
+                queue[tail++] = next;
+            }
+        }
+        reachable = tail;
+    }
+
+    /**
+     * Records that cell may have changed between passable and impassable. The distances
+     * are fixed up by the next call to update.
+     */
+    public void cellChanged(int cell) {
+        if (goal < 0) {
+            return;
+        }
+        updateCell(cell);
+        int cx = grid.x(cell);
+        int cy = grid.y(cell);
+        for (int i = 0; i < 4; i++) {
+            int nx = cx + DX[i];
+            int ny = cy + DY[i];
+            if (grid.inBounds(nx, ny)) {
+                updateCell(grid.cell(nx, ny));
+            }
+        }
+    }
+
+    public int goal() {
+        return goal;
+    }
+
+    /** Number of steps from cell to the goal, or UNREACHABLE. */
+    public int distance(int cell) {
+        int d = g(cell);
+        return d >= INF ? UNREACHABLE : d;
+    }
+
+    /**
+     * A neighbour of cell that is one step closer to the goal, or UNREACHABLE if the goal
+     * cannot be reached from cell or cell is the goal.
+     */
+    public int nextStep(int cell) {
+        int d = distance(cell);
+        if (d <= 0) {
+            return UNREACHABLE;
+        }
+        int cx = grid.x(cell);
+        int cy = grid.y(cell);
+        for (int i = 0; i < 4; i++) {
+            int nx = cx + DX[i];
+            int ny = cy + DY[i];
+            if (!grid.inBounds(nx, ny)) {
+                continue;
+            }
+            int next = grid.cell(nx, ny);
+            if (distance(next) == d - 1) {
+                return next;
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /** Number of cells processed by the last build or update. */
+    public int expanded() {
+        return expanded;
+    }
+
+    private void repair() {
+        while (!open.isEmpty()) {
+            if (expanded > reachable / REBUILD_SHARE) {
+                int spent = expanded;
+                build(goal);
+                expanded += spent;
+                return;
+            }
+            int cell = open.pop();
+            expanded++;
+            if (g(cell) > rhs[cell]) {
+                g[cell] = rhs[cell];
+            } else {
+                g[cell] = INF;
+                updateCell(cell);
+            }
+            int cx = grid.x(cell);
+            int cy = grid.y(cell);
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (grid.inBounds(nx, ny)) {
+                    updateCell(grid.cell(nx, ny));
+                }
+            }
+        }
+    }
+
+    private void updateCell(int cell) {
+        int lookahead = cell == goal ? 0 : lookahead(cell);
+        set(cell, g(cell), lookahead);
+        if (g[cell] != lookahead) {
+            open.push(cell, Math.min(g[cell], lookahead));
+        } else {
+            open.remove(cell);
+        }
+    }
+
+    private int lookahead(int cell) {
+        int cx = grid.x(cell);
+        int cy = grid.y(cell);
+        if (!grid.passable(cx, cy)) {
+            return INF;
+        }
+        int best = INF;
+        for (int i = 0; i < 4; i++) {
+            int nx = cx + DX[i];
+            int ny = cy + DY[i];
+            if (grid.inBounds(nx, ny) && grid.passable(nx, ny)) {
+                best = Math.min(best, g(grid.cell(nx, ny)) + 1);
+            }
+        }
+        return best;
+    }
+
+    private int g(int cell) {
+        return stamp[cell] == epoch ? g[cell] : INF;
+    }
+
+    private void set(int cell, int distance, int lookahead) {
+        g[cell] = distance;
+        rhs[cell] = lookahead;
+        stamp[cell] = epoch;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+}
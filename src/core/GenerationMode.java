@@ -0,0 +1,15 @@
+package core;
+
+/**
+ * How WorldGenerator draws its random numbers.
+ */
+public enum GenerationMode {
+    /** One Random for the whole world, drawn in order; gives the same maps as always for a seed. */
+    LEGACY,
+    /**
+     * The map is cut into regions, each placing its rooms from its own stream keyed by (seed,
+     * stage, region), so regions are generated in parallel and the map does not depend on the
+     * number of threads.
+     */
+    SPLIT
+}
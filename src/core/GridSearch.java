@@ -0,0 +1,103 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search between two cells of a NavGrid, ignoring tile costs. All scratch
+ * state (queue, predecessor links and visited marks) is allocated once and reused, so a
+ * search does not allocate. Visited marks are stamped with a search number instead of
+ * being cleared.
+ */
+public class GridSearch implements Pathfinder {
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final int[] queue;
+    private final int[] prev;
+    private final int[] visited;
+    private final int[] path;
+    private int epoch;
+    private int pathLength;
+    private int expanded;
+
+    public GridSearch(NavGrid grid) {
+        this.grid = grid;
+        this.queue = new int[grid.size()];
+        this.prev = new int[grid.size()];
+        this.visited = new int[grid.size()];
+        this.path = new int[grid.size()];
+    }
+
+    @Override
+    public boolean findPath(int start, int goal) {
+        nextEpoch();
+        pathLength = 0;
+        expanded = 0;
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = epoch;
+
+        boolean found = false;
+        while (head < tail) {
+            int current = queue[head++];
+            expanded++;
+            if (current == goal) {
+                found = true;
+                break;
+            }
+
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (visited[next] == epoch) {
+                    continue;
+                }
+                visited[next] = epoch;
+                prev[next] = current;
+                queue[tail++] = next;
+            }
+        }
+
+        if (!found) {
+            return false;
+        }
+
+        for (int step = goal; step != start; step = prev[step]) {
+            path[pathLength++] = step;
+        }
+        return true;
+    }
+
+    @Override
+    public int pathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int pathCell(int i) {
+        return path[pathLength - 1 - i];
+    }
+
+    @Override
+    public int expanded() {
+        return expanded;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Hallway {
 
-    private final List<Position> path;
+    private long[] path;
+    private int size;
 
     public Hallway() {
-        this.path = new ArrayList<>();
+        this.path = new long[16];
     }
 
     public void add(Position p) {
-        path.add(p);
+        add(p.getX(), p.getY());
+    }
+
+    public void add(int x, int y) {
+        if (size == path.length) {
+            path = Arrays.copyOf(path, size * 2);
+        }
+        path[size++] = Coords.pack(x, y);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The i-th tile, packed with Coords.pack. */
+    public long tile(int i) {
+        return path[i];
     }
 
     public List<Position> tiles() {
-        return path;
+        List<Position> tiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tiles.add(new Position(Coords.x(path[i]), Coords.y(path[i])));
+        }
+        return tiles;
     }
 
 }
@@ -0,0 +1,235 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Two-level pathfinder over a RoomGraph. The start and goal are linked into the entrance
+ * graph of their regions, A* runs over entrances only, and then just the first leg of the
+ * result, up to the next entrance, is turned into grid steps. The work per search depends
+ * on the number of rooms and hallways rather than on the area of the map.
+ *
+ * pathLength and pathCell describe that first leg only; distance gives the length of the
+ * whole path. expanded counts the entrance nodes searched plus the cells flooded to measure
+ * the legs out of a start or goal that lies in a corridor.
+ */
+public class HierarchicalPathfinder implements Pathfinder {
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final RoomGraph graph;
+    private final NavGrid grid;
+    private final IndexedMinHeap open;
+    private final int[] g;
+    private final int[] prev;
+    private final int[] seen;
+    private final int[] closed;
+    private final int[] startDist;
+    private final int[] goalDist;
+    private final int[] startQueue;
+    private final int[] goalQueue;
+    private final int[] path;
+    private final int startNode;
+    private final int goalNode;
+    private int epoch;
+    private int start;
+    private int goal;
+    private int pathLength;
+    private int distance;
+    private int expanded;
+
+    public HierarchicalPathfinder(RoomGraph graph) {
+        this.graph = graph;
+        this.grid = graph.grid();
+        this.startNode = graph.nodeCount();
+        this.goalNode = graph.nodeCount() + 1;
+        this.open = new IndexedMinHeap(graph.nodeCount() + 2);
+        this.g = new int[graph.nodeCount() + 2];
+        this.prev = new int[graph.nodeCount() + 2];
+        this.seen = new int[graph.nodeCount() + 2];
+        this.closed = new int[graph.nodeCount() + 2];
+        this.startDist = new int[grid.size()];
+        this.goalDist = new int[grid.size()];
+        this.startQueue = new int[grid.size()];
+        this.goalQueue = new int[grid.size()];
+        this.path = new int[grid.size()];
+        Arrays.fill(startDist, -1);
+        Arrays.fill(goalDist, -1);
+    }
+
+    @Override
+    public boolean findPath(int start, int goal) {
+        this.start = start;
+        this.goal = goal;
+        pathLength = 0;
+        distance = -1;
+        expanded = 0;
+        int startRegion = graph.region(start);
+        int goalRegion = graph.region(goal);
+        if (startRegion < 0 || goalRegion < 0) {
+            return false;
+        }
+        if (start == goal) {
+            distance = 0;
+            return true;
+        }
+
+        int startReached = graph.isRoom(startRegion) ? 0 : graph.corridorDistances(start, startDist, startQueue);
+        int goalReached = graph.isRoom(goalRegion) ? 0 : graph.corridorDistances(goal, goalDist, goalQueue);
+        expanded = startReached + goalReached;
+
+        boolean found = search(startRegion, goalRegion);
+        if (found) {
+            distance = g[goalNode];
+            refineFirstLeg(startRegion);
+        }
+
+        for (int i = 0; i < startReached; i++) {
+            startDist[startQueue[i]] = -1;
+        }
+        for (int i = 0; i < goalReached; i++) {
+            goalDist[goalQueue[i]] = -1;
+        }
+        return found;
+    }
+
+    @Override
+    public int pathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int pathCell(int i) {
+        return path[i];
+    }
+
+    @Override
+    public int expanded() {
+        return expanded;
+    }
+
+    /** Length of the whole path found by the last search, or -1 if there was none. */
+    public int distance() {
+        return distance;
+    }
+
+    private boolean search(int startRegion, int goalRegion) {
+        nextEpoch();
+        open.clear();
+        g[startNode] = 0;
+        seen[startNode] = epoch;
+        open.push(startNode, key(0, start));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            closed[current] = epoch;
+            expanded++;
+            if (current == goalNode) {
+                return true;
+            }
+
+            if (current == startNode) {
+                for (int i = graph.regionNodeStart(startRegion); i < graph.regionNodeEnd(startRegion); i++) {
+                    int n = graph.regionNode(i);
+                    relax(current, n, legFromStart(startRegion, graph.nodeCell(n)));
+                }
+                if (startRegion == goalRegion) {
+                    relax(current, goalNode, legFromStart(startRegion, goal));
+                }
+                continue;
+            }
+
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                relax(current, graph.edgeTarget(e), graph.edgeCost(e));
+            }
+            int cell = graph.nodeCell(current);
+            if (graph.region(cell) == goalRegion) {
+                relax(current, goalNode, legToGoal(goalRegion, cell));
+            }
+        }
+        return false;
+    }
+
+    private void relax(int from, int to, int cost) {
+        if (cost < 0 || closed[to] == epoch) {
+            return;
+        }
+        int total = g[from] + cost;
+        if (seen[to] == epoch && total >= g[to]) {
+            return;
+        }
+        seen[to] = epoch;
+        g[to] = total;
+        prev[to] = from;
+        open.push(to, key(total, to == goalNode ? goal : graph.nodeCell(to)));
+    }
+
+    private int legFromStart(int region, int cell) {
+        return graph.isRoom(region) ? graph.manhattan(start, cell) : startDist[cell];
+    }
+
+    private int legToGoal(int region, int cell) {
+        return graph.isRoom(region) ? graph.manhattan(cell, goal) : goalDist[cell];
+    }
+
+    /** Turns the abstract path into grid steps up to the first waypoint that is not start. */
+    private void refineFirstLeg(int startRegion) {
+        int waypoint = goalNode;
+        for (int n = prev[goalNode]; n != startNode; n = prev[n]) {
+            if (graph.nodeCell(n) != start) {
+                waypoint = n;
+            }
+        }
+        int target = waypoint == goalNode ? goal : graph.nodeCell(waypoint);
+
+        if (graph.region(target) != startRegion) {
+            path[pathLength++] = target;
+        } else if (graph.isRoom(startRegion)) {
+            int x = grid.x(start);
+            int y = grid.y(start);
+            while (x != grid.x(target)) {
+                x += Integer.signum(grid.x(target) - x);
+                path[pathLength++] = grid.cell(x, y);
+            }
+            while (y != grid.y(target)) {
+                y += Integer.signum(grid.y(target) - y);
+                path[pathLength++] = grid.cell(x, y);
+            }
+        } else {
+            pathLength = startDist[target];
+            int cell = target;
+            for (int i = pathLength - 1; i >= 0; i--) {
+                path[i] = cell;
+                cell = closerToStart(cell);
+            }
+        }
+    }
+
+    private int closerToStart(int cell) {
+        for (int i = 0; i < 4; i++) {
+            int nx = grid.x(cell) + DX[i];
+            int ny = grid.y(cell) + DY[i];
+            if (grid.inBounds(nx, ny)) {
+                int next = grid.cell(nx, ny);
+                if (startDist[next] == startDist[cell] - 1) {
+                    return next;
+                }
+            }
+        }
+        return start;
+    }
+
+    private long key(int cost, int cell) {
+        int h = graph.manhattan(cell, goal);
+        return ((long) (cost + h) << 32) | h;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -4,18 +4,36 @@ import tileengine.TETile;
 import tileengine.Tileset;
 
 public class Hug {
-    private Position hugPosition;
+    private int x;
+    private int y;
     public Hug(Position hugStart) {
-        this.hugPosition = hugStart;
+        this(hugStart.getX(), hugStart.getY());
+    }
+
+    public Hug(int x, int y) {
+        this.x = x;
+        this.y = y;
     }
 
     public Position getHugPosition() {
-        return hugPosition;
+        return new Position(x, y);
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
     }
 
     public void setHugPosition(Position nextStep) {
-        this.hugPosition = nextStep;
+        moveTo(nextStep.getX(), nextStep.getY());
     }
 
-}
+    public void moveTo(int newX, int newY) {
+        this.x = newX;
+        this.y = newY;
+    }
 
+}
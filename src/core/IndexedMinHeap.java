@@ -0,0 +1,131 @@
+package core;
+
+/**
+ * Binary min-heap of int items in the range [0, capacity), each with a long priority.
+ * Items can be re-prioritised or removed in O(log n) because the heap keeps track of
+ * where each item sits. Nothing is boxed and nothing is allocated after construction.
+ */
+public class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] slot;
+    private final long[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.slot = new int[capacity];
+        this.keys = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return slot[item] != 0;
+    }
+
+    public long key(int item) {
+        return keys[item];
+    }
+
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    /** Inserts item, or moves it to its new place if it is already in the heap. */
+    public void push(int item, long key) {
+        if (contains(item)) {
+            long old = keys[item];
+            keys[item] = key;
+            if (key < old) {
+                siftUp(slot[item] - 1);
+            } else {
+                siftDown(slot[item] - 1);
+            }
+            return;
+        }
+        keys[item] = key;
+        heap[size] = item;
+        slot[item] = size + 1;
+        siftUp(size++);
+    }
+
+    /** Removes and returns the item with the smallest key. */
+    public int pop() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public void remove(int item) {
+        if (contains(item)) {
+            removeAt(slot[item] - 1);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slot[heap[i]] = 0;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int i) {
+        int item = heap[i];
+        slot[item] = 0;
+        size--;
+        if (i == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[i] = last;
+        slot[last] = i + 1;
+        siftDown(i);
+        siftUp(slot[last] - 1);
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        long key = keys[item];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int other = heap[parent];
+            if (keys[other] <= key) {
+                break;
+            }
+            heap[i] = other;
+            slot[other] = i + 1;
+            i = parent;
+        }
+        heap[i] = item;
+        slot[item] = i + 1;
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        long key = keys[item];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int other = heap[child];
+            if (key <= keys[other]) {
+                break;
+            }
+            heap[i] = other;
+            slot[other] = i + 1;
+            i = child;
+        }
+        heap[i] = item;
+        slot[item] = i + 1;
+    }
+}
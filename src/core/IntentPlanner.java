@@ -0,0 +1,112 @@
+package core;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Works out where every Hug wants to move this tick, in parallel on a fork/join pool. Only
+ * shared read-only state is used: the flow field, or for per-Hug searches a Pathfinder
+ * borrowed from a pool so no two workers share scratch buffers. Planning on the calling
+ * thread uses a Pathfinder of its own, so it allocates nothing. Each intent depends only on
+ * the Hug's cell and the goal, so the result is the same whatever the number of threads;
+ * resolving conflicts between intents is left to a single-threaded commit.
+ */
+public class IntentPlanner {
+
+    private static final int CHUNK = 64;
+
+    private final FlowField field;
+    private final ConnectivityIndex connectivity;
+    private final Supplier<Pathfinder> engines;
+    private final ConcurrentLinkedQueue<Pathfinder> spare = new ConcurrentLinkedQueue<>();
+    private final ForkJoinPool pool;
+    private Pathfinder local;
+
+    /**
+     * @param engines creates a Pathfinder per worker, or null to read intents from field
+     * @param pool the pool to plan on, or null to plan on the calling thread
+     */
+    public IntentPlanner(FlowField field, ConnectivityIndex connectivity, Supplier<Pathfinder> engines,
+                         ForkJoinPool pool) {
+        this.field = field;
+        this.connectivity = connectivity;
+        this.engines = engines;
+        this.pool = pool;
+    }
+
+    /**
+     * Fills intents[i] with the cell Hug i wants to step to, or FlowField.UNREACHABLE, for
+     * every i below count. The flow field, if used, must already be up to date for goal.
+     */
+    public void plan(int[] cells, int count, int goal, int[] intents) {
+        connectivity.refresh();
+        if (pool == null || count <= CHUNK) {
+            if (engines != null && local == null) {
+                local = engines.get();
+            }
+            planRange(local, cells, 0, count, goal, intents);
+        } else {
+            pool.invoke(new PlanTask(cells, 0, count, goal, intents));
+        }
+    }
+
+    private void planRange(Pathfinder engine, int[] cells, int from, int to, int goal, int[] intents) {
+        for (int i = from; i < to; i++) {
+            intents[i] = intent(engine, cells[i], goal);
+        }
+    }
+
+    private int intent(Pathfinder engine, int cell, int goal) {
+        if (!connectivity.sameComponent(cell, goal)) {
+            return FlowField.UNREACHABLE;
+        }
+        if (engine == null) {
+            return field.nextStep(cell);
+        }
+        if (!engine.findPath(cell, goal) || engine.pathLength() == 0) {
+            return FlowField.UNREACHABLE;
+        }
+        return engine.pathCell(0);
+    }
+
+    private class PlanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] cells;
+        private final int from;
+        private final int to;
+        private final int goal;
+        private final int[] intents;
+
+        PlanTask(int[] cells, int from, int to, int goal, int[] intents) {
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+            this.goal = goal;
+            this.intents = intents;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                Pathfinder engine = null;
+                if (engines != null) {
+                    engine = spare.poll();
+                    if (engine == null) {
+                        engine = engines.get();
+                    }
+                }
+                planRange(engine, cells, from, to, goal, intents);
+                if (engine != null) {
+                    spare.add(engine);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTask(cells, from, mid, goal, intents),
+                    new PlanTask(cells, mid, to, goal, intents));
+        }
+    }
+}
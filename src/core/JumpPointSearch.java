@@ -0,0 +1,210 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Jump Point Search for 4-connected grids with uniform step cost. Among equally short paths
+ * it only considers those that turn from horizontal to vertical where an obstacle forces
+ * them to, so a search crosses an open room in a handful of jumps instead of expanding
+ * every floor tile in it. Paths have the same length as a breadth-first search; tile costs
+ * are ignored.
+ *
+ * A horizontal scan stops at the goal or at a cell whose vertical neighbour could not have
+ * been reached by going vertical first. A vertical scan stops at the goal or at a cell from
+ * which a horizontal scan finds something.
+ *
+ * expanded() counts only the jump points taken off the open list, so it is not comparable
+ * with the cells a BFS or A* expands; scanned() counts the cells the scans stepped onto.
+ */
+public class JumpPointSearch implements Pathfinder {
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+    private static final int START = -1;
+
+    private final NavGrid grid;
+    private final IndexedMinHeap open;
+    private final int[] g;
+    private final int[] prev;
+    private final int[] arrival;
+    private final int[] seen;
+    private final int[] closed;
+    private final int[] path;
+    private int epoch;
+    private int goal;
+    private int pathLength;
+    private int expanded;
+    private int scanned;
+
+    public JumpPointSearch(NavGrid grid) {
+        this.grid = grid;
+        this.open = new IndexedMinHeap(grid.size());
+        this.g = new int[grid.size()];
+        this.prev = new int[grid.size()];
+        this.arrival = new int[grid.size()];
+        this.seen = new int[grid.size()];
+        this.closed = new int[grid.size()];
+        this.path = new int[grid.size()];
+    }
+
+    @Override
+    public boolean findPath(int start, int goal) {
+        nextEpoch();
+        open.clear();
+        this.goal = goal;
+        pathLength = 0;
+        expanded = 0;
+        scanned = 0;
+
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+        g[start] = 0;
+        arrival[start] = START;
+        seen[start] = epoch;
+        open.push(start, key(0, distance(grid.x(start), grid.y(start), goalX, goalY)));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            closed[current] = epoch;
+            expanded++;
+            if (current == goal) {
+                buildPath(start);
+                return true;
+            }
+
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            for (int dir = 0; dir < 4; dir++) {
+                if (!isSuccessorDirection(cx, cy, arrival[current], dir)) {
+                    continue;
+                }
+                int jump = dir < 2 ? jumpHorizontal(cx, cy, DX[dir]) : jumpVertical(cx, cy, DY[dir]);
+                if (jump < 0 || closed[jump] == epoch) {
+                    continue;
+                }
+                int jx = grid.x(jump);
+                int jy = grid.y(jump);
+                int cost = g[current] + distance(cx, cy, jx, jy);
+                if (seen[jump] == epoch && cost >= g[jump]) {
+                    continue;
+                }
+                seen[jump] = epoch;
+                g[jump] = cost;
+                prev[jump] = current;
+                arrival[jump] = dir;
+                open.push(jump, key(cost, distance(jx, jy, goalX, goalY)));
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int pathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int pathCell(int i) {
+        return path[pathLength - 1 - i];
+    }
+
+    /** Number of jump points the last search took off the open list. */
+    @Override
+    public int expanded() {
+        return expanded;
+    }
+
+    /**
+     * Number of open cells the last search's scans stepped onto, counting a cell again each
+     * time another scan passes over it.
+     */
+    public int scanned() {
+        return scanned;
+    }
+
+    private boolean isSuccessorDirection(int x, int y, int arrivedBy, int dir) {
+        if (arrivedBy == START) {
+            return true;
+        }
+        if (arrivedBy >= 2) {
+            return dir != (arrivedBy ^ 1);
+        }
+        if (dir == arrivedBy) {
+            return true;
+        }
+        if (dir < 2) {
+            return false;
+        }
+        int behind = x - DX[arrivedBy];
+        return open(x, y + DY[dir]) && !open(behind, y + DY[dir]);
+    }
+
+    private int jumpHorizontal(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (!open(x, y)) {
+                return -1;
+            }
+            scanned++;
+            int cell = grid.cell(x, y);
+            if (cell == goal) {
+                return cell;
+            }
+            if ((open(x, y + 1) && !open(x - dx, y + 1)) || (open(x, y - 1) && !open(x - dx, y - 1))) {
+                return cell;
+            }
+        }
+    }
+
+    private int jumpVertical(int x, int y, int dy) {
+        while (true) {
+            y += dy;
+            if (!open(x, y)) {
+                return -1;
+            }
+            scanned++;
+            int cell = grid.cell(x, y);
+            if (cell == goal || jumpHorizontal(x, y, 1) >= 0 || jumpHorizontal(x, y, -1) >= 0) {
+                return cell;
+            }
+        }
+    }
+
+    private boolean open(int x, int y) {
+        return grid.inBounds(x, y) && grid.passable(x, y);
+    }
+
+    private void buildPath(int start) {
+        for (int to = goal; to != start; to = prev[to]) {
+            int from = prev[to];
+            int dx = Integer.signum(grid.x(from) - grid.x(to));
+            int dy = Integer.signum(grid.y(from) - grid.y(to));
+            int x = grid.x(to);
+            int y = grid.y(to);
+            int cell = to;
+            while (cell != from) {
+                path[pathLength++] = cell;
+                x += dx;
+                y += dy;
+                cell = grid.cell(x, y);
+            }
+        }
+    }
+
+    private static int distance(int x, int y, int goalX, int goalY) {
+        return Math.abs(x - goalX) + Math.abs(y - goalY);
+    }
+
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+
+    private void nextEpoch() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            epoch = 1;
+        }
+    }
+}
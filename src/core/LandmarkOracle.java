@@ -0,0 +1,241 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * ALT distance oracle: the step distances from a few landmark cells to every cell of a grid.
+ * By the triangle inequality |d(L, a) - d(L, b)| never exceeds the distance from a to b, so
+ * the largest such difference over all landmarks is an admissible A* heuristic, and a far
+ * tighter one than Manhattan distance around walls.
+ *
+ * Landmarks are spread around the rim of the connected area that holds a given anchor cell,
+ * such as the player's, one per angular sector around its centre. Void tiles are passable
+ * and usually form a bigger area outside the walls, so the anchor keeps landmarks where the
+ * actors are. Picking them needs no searches, so the breadth-first searches
+ * from each landmark can then run in parallel. Distances are stored as chars interleaved per
+ * cell, so one lookup touches one cache line. Distances past MAX_DISTANCE are not stored and
+ * the landmark is skipped for that pair, which keeps the bound admissible.
+ *
+ * The oracle stays admissible while cells only close; a cell that opens makes it stale.
+ * On grids so large that count landmarks would not fit in MAX_BYTES once stored, fewer are
+ * used, down to none, where every lower bound is 0.
+ */
+public class LandmarkOracle {
+
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private static final char UNKNOWN = Character.MAX_VALUE;
+    private static final int MAX_DISTANCE = UNKNOWN - 1;
+    private static final int MAGIC = 0x414c5431;
+    private static final int HEADER_BYTES = 28;
+    private static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final int[] landmarks;
+    private final char[] dist;
+    private final long gridHash;
+
+    private LandmarkOracle(NavGrid grid, int[] landmarks, char[] dist, long gridHash) {
+        this.grid = grid;
+        this.landmarks = landmarks;
+        this.dist = dist;
+        this.gridHash = gridHash;
+    }
+
+    /**
+     * Picks up to count landmarks in the area reachable from anchor and measures distances
+     * from them, one search per landmark on pool, or on the calling thread if pool is null.
+     */
+    public static LandmarkOracle build(NavGrid grid, int anchor, int count, ForkJoinPool pool) {
+        long bytesPerLandmark = Integer.BYTES + (long) grid.size() * Character.BYTES;
+        int fit = (int) Math.min(count, (MAX_BYTES - HEADER_BYTES) / bytesPerLandmark);
+        int[] landmarks = pickLandmarks(grid, anchor, fit);
+        char[] dist = new char[grid.size() * landmarks.length];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int l = 0; l < landmarks.length; l++) {
+            int index = l;
+            tasks.add(ForkJoinTask.adapt(() -> measure(grid, landmarks, index, dist)));
+        }
+        if (pool == null) {
+            tasks.forEach(ForkJoinTask::invoke);
+        } else {
+            pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+        }
+        return new LandmarkOracle(grid, landmarks, dist, passabilityHash(grid));
+    }
+
+    /**
+     * A lower bound on the number of steps from a to b, or 0 if no landmark reaches both.
+     */
+    public int lowerBound(int a, int b) {
+        int k = landmarks.length;
+        int baseA = a * k;
+        int baseB = b * k;
+        int best = 0;
+        for (int l = 0; l < k; l++) {
+            int da = dist[baseA + l];
+            int db = dist[baseB + l];
+            if (da == UNKNOWN || db == UNKNOWN) {
+                continue;
+            }
+            best = Math.max(best, Math.abs(da - db));
+        }
+        return best;
+    }
+
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    public int landmark(int l) {
+        return landmarks[l];
+    }
+
+    /** Bytes used by the distance table. */
+    public long memoryBytes() {
+        return (long) dist.length * Character.BYTES;
+    }
+
+    /** The oracle as bytes, for storing next to a save. */
+    public byte[] toBytes() {
+        long bytes = HEADER_BYTES + (long) landmarks.length * Integer.BYTES + (long) dist.length * Character.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(bytes));
+        buffer.putInt(MAGIC);
+        buffer.putInt(grid.width());
+        buffer.putInt(grid.height());
+        buffer.putLong(gridHash);
+        buffer.putInt(landmarks.length);
+        buffer.putInt(dist.length);
+        for (int landmark : landmarks) {
+            buffer.putInt(landmark);
+        }
+        buffer.asCharBuffer().put(dist);
+        return buffer.array();
+    }
+
+    /**
+     * Reads an oracle written by toBytes. Returns null if the bytes do not describe grid as
+     * it is now, for example because they were written for a different world, or if the
+     * header gives sizes that do not match the bytes that follow it.
+     */
+    public static LandmarkOracle fromBytes(byte[] bytes, NavGrid grid) {
+        if (bytes == null || bytes.length < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long gridHash = passabilityHash(grid);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != grid.width() || buffer.getInt() != grid.height()
+                || buffer.getLong() != gridHash) {
+            return null;
+        }
+        int count = buffer.getInt();
+        int length = buffer.getInt();
+        if (count < 0 || length < 0 || length != (long) count * grid.size()
+                || buffer.remaining() != (long) count * Integer.BYTES + (long) length * Character.BYTES) {
+            return null;
+        }
+        int[] landmarks = new int[count];
+        for (int l = 0; l < count; l++) {
+            landmarks[l] = buffer.getInt();
+            if (landmarks[l] < 0 || landmarks[l] >= grid.size()) {
+                return null;
+            }
+        }
+        char[] dist = new char[length];
+        buffer.asCharBuffer().get(dist);
+        return new LandmarkOracle(grid, landmarks, dist, gridHash);
+    }
+
+    private static void measure(NavGrid grid, int[] landmarks, int index, char[] dist) {
+        int k = landmarks.length;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            dist[cell * k + index] = UNKNOWN;
+        }
+
+        int[] queue = new int[grid.size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = landmarks[index];
+        dist[landmarks[index] * k + index] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            int nextDist = dist[current * k + index] + 1;
+            if (nextDist > MAX_DISTANCE) {
+                break;
+            }
+            int cx = grid.x(current);
+            int cy = grid.y(current);
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (dist[next * k + index] == UNKNOWN) {
+                    dist[next * k + index] = (char) nextDist;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * One landmark per angular sector around the centre of the area reachable from anchor,
+     * each the cell of that area in its sector furthest from the centre. Empty sectors are
+     * skipped.
+     */
+    private static int[] pickLandmarks(NavGrid grid, int anchor, int count) {
+        ConnectivityIndex connectivity = new ConnectivityIndex(grid);
+        int area = connectivity.component(anchor);
+        int areaSize = connectivity.componentSize(anchor);
+        if (area < 0 || count == 0) {
+            return new int[0];
+        }
+
+        long sumX = 0;
+        long sumY = 0;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (connectivity.component(cell) == area) {
+                sumX += grid.x(cell);
+                sumY += grid.y(cell);
+            }
+        }
+        double centreX = (double) sumX / areaSize;
+        double centreY = (double) sumY / areaSize;
+
+        int[] best = new int[count];
+        double[] bestDist = new double[count];
+        Arrays.fill(best, -1);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (connectivity.component(cell) != area) {
+                continue;
+            }
+            double dx = grid.x(cell) - centreX;
+            double dy = grid.y(cell) - centreY;
+            double angle = Math.atan2(dy, dx) + Math.PI;
+            int sector = Math.min(count - 1, (int) (angle / (2 * Math.PI) * count));
+            double d = Math.abs(dx) + Math.abs(dy);
+            if (best[sector] < 0 || d > bestDist[sector]) {
+                best[sector] = cell;
+                bestDist[sector] = d;
+            }
+        }
+        return Arrays.stream(best).filter(cell -> cell >= 0).toArray();
+    }
+
+    private static long passabilityHash(NavGrid grid) {
+        long hash = 1125899906842597L;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            hash = 31 * hash + (grid.passable(grid.x(cell), grid.y(cell)) ? 1 : 0);
+        }
+        return hash;
+    }
+}
@@ -1,8 +1,9 @@
 package core;
 
 import edu.princeton.cs.algs4.StdDraw;
+import tileengine.ArrayTileGrid;
 import tileengine.TERenderer;
-import tileengine.TETile;
+import tileengine.TileGrid;
 import tileengine.Tileset;
 import utils.FileUtils;
 import java.util.ArrayList;
@@ -14,9 +15,11 @@ public class Main {
     private static final int HEIGHT = 40;
     private static final int HUD_HEIGHT = 3;
     private static final String SAVE_FILE = "save.txt";
+    private static final String LANDMARK_FILE = "save.landmarks";
 
     private TERenderer ter;
     private World world;
+    private TileGrid frame;
     private long seed;
     private boolean lampOn = true;
     private int lampRadius = 6;
@@ -170,22 +173,11 @@ public class Main {
     private void renderFrame() {
 
         StdDraw.clear(StdDraw.BLACK);
-        TETile[][] base = world.getTiles();
-        TETile[][] frame;
-
-        if (lampOn) {
-            frame = applyLamp(base, world.getPlayerPosition(), lampRadius);
-        } else {
-            frame = world.getTiles();
-        }
-
-        if (showPath) {
-            for (Position position : world.getLastPath()) {
-                if (world.inBounds(position.getX(), position.getY())) {
-                    frame[position.getX()][position.getY()] = Tileset.PATH;
-                }
-            }
+        TileGrid base = world.getTiles();
+        if (frame == null || frame.width() != base.width() || frame.height() != base.height()) {
+            frame = new ArrayTileGrid(base.width(), base.height());
         }
+        world.drawFrame(frame, lampOn ? lampRadius : -1, showPath);
 
         ter.renderFrame(frame);
         drawHUD(frame);
@@ -199,14 +191,20 @@ public class Main {
         lampOn = true;
 
         WorldGenerator worldGenerator = new WorldGenerator(WIDTH, HEIGHT, seed);
-        TETile[][] grid = worldGenerator.generateWorld();
+        TileGrid grid = worldGenerator.generateWorld();
         world = new World(grid, seed);
+        world.setRooms(worldGenerator.getRooms());
 
         world.setUseCustomAvatar(useCustomAvatar);
-        world.addHug(new Hug(world.randomFloorTile()));
+        int hugCell = world.randomFloorCell(true);
+        if (hugCell != World.NO_CELL) {
+            world.addHug(world.cellX(hugCell), world.cellY(hugCell), 1);
+        }
 
-        Position exitPosition = world.randomFloorTile();
-        grid[exitPosition.getX()][exitPosition.getY()] = Tileset.EXIT;
+        int exitCell = world.randomFloorCell(true);
+        if (exitCell != World.NO_CELL) {
+            world.setTile(world.cellX(exitCell), world.cellY(exitCell), Tileset.EXIT);
+        }
 
     }
 
@@ -259,7 +257,7 @@ public class Main {
     }
 
 
-    private void drawHUD(TETile[][] frame) {
+    private void drawHUD(TileGrid frame) {
         StdDraw.setPenColor(StdDraw.WHITE);
 
         String tileDescription = "nothing";
@@ -270,11 +268,8 @@ public class Main {
         int mouseX = Double.valueOf(X).intValue();
         int mouseY = Double.valueOf(Y).intValue();
 
-        if (mouseX >= 0 && mouseX < frame.length && mouseY >= 0 && mouseY < frame[0].length) {
-            TETile tile = frame[mouseX][mouseY];
-            if (tile != null) {
-                tileDescription = tile.description();
-            }
+        if (frame.inBounds(mouseX, mouseY)) {
+            tileDescription = frame.get(mouseX, mouseY).description();
         }
 
         String lampStatus;
@@ -290,33 +285,14 @@ public class Main {
 
     }
 
-    private TETile[][] applyLamp(TETile[][]grid, Position center, int radius) {
-
-        int w = grid.length;
-        int h = grid[0].length;
-
-        TETile[][] lit = new TETile[w][h];
-
-        for (int x = 0; x < w; x++) {
-            for (int y = 0; y < h; y++) {
-                int tileX = x - center.getX();
-                int tileY = y - center.getY();
-                int dist = tileX * tileX + tileY * tileY;
-
-                if (dist <= radius * radius) {
-                    lit[x][y] = grid[x][y];
-                } else {
-                    lit[x][y] = Tileset.NOTHING;
-                }
-            }
-        }
-        return lit;
-
-    }
-
     private void saveGame() {
         String data = seed + ";" + world.save();
         FileUtils.writeFile(SAVE_FILE, data);
+        if (world.hasLandmarks()) {
+            FileUtils.writeBytes(LANDMARK_FILE, world.getLandmarks().toBytes());
+        } else {
+            FileUtils.deleteFile(LANDMARK_FILE);
+        }
     }
 
     private boolean loadGame() {
@@ -331,6 +307,13 @@ public class Main {
 
         String worldData = data.substring(index + 1);
         world = World.load(worldData, seed);
+        // Saves hold no rooms, but generating the same seed again places the same ones.
+        WorldGenerator worldGenerator = new WorldGenerator(WIDTH, HEIGHT, seed);
+        worldGenerator.generateWorld();
+        world.setRooms(worldGenerator.getRooms());
+        if (FileUtils.fileExists(LANDMARK_FILE)) {
+            world.loadLandmarks(FileUtils.readBytes(LANDMARK_FILE));
+        }
 
         world.setUseCustomAvatar(useCustomAvatar);
         return true;
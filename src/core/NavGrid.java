@@ -0,0 +1,83 @@
+package core;
+
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+/**
+ * Read-only view of the tile grid used by the pathfinding code. Cells are packed into a
+ * single int, column by column, so searches can keep their state in flat int arrays. That
+ * limits a NavGrid, and so a World, to MAX_CELLS cells; larger grids, such as a giant
+ * MappedTileGrid, can be generated and rendered but not played.
+ */
+public class NavGrid {
+
+    public static final int MIN_COST = 1;
+    /** The most cells a grid may have, the largest int array a JVM will reliably allocate. */
+    public static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+    private static final int SAND_COST = 2;
+    private static final int WATER_COST = 3;
+    private static final int WALL = Tileset.WALL.id();
+    private static final int SAND = Tileset.SAND.id();
+    private static final int WATER = Tileset.WATER.id();
+
+    private final TileGrid tiles;
+    private final int width;
+    private final int height;
+    private final int size;
+
+    /** @throws IllegalArgumentException if tiles has more than MAX_CELLS cells */
+    public NavGrid(TileGrid tiles) {
+        long cells = (long) tiles.width() * tiles.height();
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("a " + tiles.width() + "x" + tiles.height() + " grid has "
+                    + cells + " cells, more than the " + MAX_CELLS + " pathfinding and worlds support");
+        }
+        this.tiles = tiles;
+        this.width = tiles.width();
+        this.height = tiles.height();
+        this.size = (int) cells;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int cell(int x, int y) {
+        return x * height + y;
+    }
+
+    public int x(int cell) {
+        return cell / height;
+    }
+
+    public int y(int cell) {
+        return cell % height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean passable(int x, int y) {
+        return tiles.id(x, y) != WALL;
+    }
+
+    /** Cost of stepping onto a passable tile. Never less than MIN_COST. */
+    public int cost(int x, int y) {
+        int tile = tiles.id(x, y);
+        if (tile == WATER) {
+            return WATER_COST;
+        } else if (tile == SAND) {
+            return SAND_COST;
+        }
+        return MIN_COST;
+    }
+}
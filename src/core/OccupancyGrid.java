@@ -0,0 +1,157 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Which actor stands on which cell, kept apart from the tiles so actors never overwrite the
+ * terrain under them. Actors are named by their ActorStore handles. at() answers for one cell
+ * in O(1). Every actor is also linked into a bucket of 8x8 cells, so within() visits only the
+ * buckets a radius touches and costs O(buckets + actors found).
+ */
+public class OccupancyGrid {
+
+    public static final int EMPTY = -1;
+
+    private static final int BUCKET_SHIFT = 3;
+
+    private final NavGrid grid;
+    private final int[] occupant;
+    private final int bucketsWide;
+    private final int bucketsHigh;
+    private final int[] bucketHead;
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] cellOf = new int[0];
+
+    public OccupancyGrid(NavGrid grid) {
+        this.grid = grid;
+        this.occupant = new int[grid.size()];
+        Arrays.fill(occupant, EMPTY);
+        this.bucketsWide = (grid.width() >> BUCKET_SHIFT) + 1;
+        this.bucketsHigh = (grid.height() >> BUCKET_SHIFT) + 1;
+        this.bucketHead = new int[bucketsWide * bucketsHigh];
+        Arrays.fill(bucketHead, EMPTY);
+    }
+
+    /** The actor on cell, or EMPTY. If actors share a cell, the one that arrived last. */
+    public int at(int cell) {
+        return occupant[cell];
+    }
+
+    public int at(int x, int y) {
+        return occupant[grid.cell(x, y)];
+    }
+
+    public boolean occupied(int cell) {
+        return occupant[cell] != EMPTY;
+    }
+
+    /** The cell actor is on, or EMPTY if it is not in the grid. */
+    public int cellOf(int actor) {
+        return actor < cellOf.length ? cellOf[actor] : EMPTY;
+    }
+
+    public void add(int actor, int cell) {
+        if (actor >= cellOf.length) {
+            int capacity = Math.max(16, (actor + 1) * 2);
+            int old = cellOf.length;
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+            Arrays.fill(cellOf, old, capacity, EMPTY);
+        }
+        cellOf[actor] = cell;
+        occupant[cell] = actor;
+        link(actor, bucket(cell));
+    }
+
+    public void move(int actor, int cell) {
+        int from = cellOf[actor];
+        if (from == cell) {
+            return;
+        }
+        vacate(actor, from);
+        cellOf[actor] = cell;
+        occupant[cell] = actor;
+        int bucket = bucket(cell);
+        if (bucket != bucket(from)) {
+            unlink(actor, bucket(from));
+            link(actor, bucket);
+        }
+    }
+
+    public void remove(int actor) {
+        int cell = cellOf[actor];
+        unlink(actor, bucket(cell));
+        cellOf[actor] = EMPTY;
+        vacate(actor, cell);
+    }
+
+    /**
+     * Finds the actors within radius of (x, y), by straight-line distance, writing as many
+     * as fit into found.
+     * @return how many actors there are, which may be more than were written
+     */
+    public int within(int x, int y, int radius, int[] found) {
+        int count = 0;
+        int radiusSquared = radius * radius;
+        int minBucketX = Math.max(0, x - radius) >> BUCKET_SHIFT;
+        int maxBucketX = Math.min(grid.width() - 1, x + radius) >> BUCKET_SHIFT;
+        int minBucketY = Math.max(0, y - radius) >> BUCKET_SHIFT;
+        int maxBucketY = Math.min(grid.height() - 1, y + radius) >> BUCKET_SHIFT;
+        for (int bx = minBucketX; bx <= maxBucketX; bx++) {
+            for (int by = minBucketY; by <= maxBucketY; by++) {
+                for (int actor = bucketHead[bx * bucketsHigh + by]; actor != EMPTY; actor = next[actor]) {
+                    int dx = grid.x(cellOf[actor]) - x;
+                    int dy = grid.y(cellOf[actor]) - y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        if (count < found.length) {
+                            found[count] = actor;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Clears actor from cell, handing the cell to another actor still standing there. */
+    private void vacate(int actor, int cell) {
+        if (occupant[cell] != actor) {
+            return;
+        }
+        occupant[cell] = EMPTY;
+        for (int other = bucketHead[bucket(cell)]; other != EMPTY; other = next[other]) {
+            if (other != actor && cellOf[other] == cell) {
+                occupant[cell] = other;
+                return;
+            }
+        }
+    }
+
+    private int bucket(int cell) {
+        return (grid.x(cell) >> BUCKET_SHIFT) * bucketsHigh + (grid.y(cell) >> BUCKET_SHIFT);
+    }
+
+    private void link(int actor, int bucket) {
+        int head = bucketHead[bucket];
+        next[actor] = head;
+        prev[actor] = EMPTY;
+        if (head != EMPTY) {
+            prev[head] = actor;
+        }
+        bucketHead[bucket] = actor;
+    }
+
+    private void unlink(int actor, int bucket) {
+        if (prev[actor] != EMPTY) {
+            next[prev[actor]] = next[actor];
+        } else {
+            bucketHead[bucket] = next[actor];
+        }
+        if (next[actor] != EMPTY) {
+            prev[next[actor]] = prev[actor];
+        }
+    }
+}
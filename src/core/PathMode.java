@@ -0,0 +1,28 @@
+package core;
+
+/**
+ * How a World moves its Hugs toward the player.
+ */
+public enum PathMode {
+    /** One shared distance field from the player that every Hug reads. */
+    FLOW_FIELD,
+    /** A breadth-first search per Hug. */
+    BFS,
+    /** A breadth-first search per Hug, run from both the Hug and the player at once. */
+    BIDIRECTIONAL,
+    /**
+     * A breadth-first search per Hug limited to a radius, which heads for the player's room
+     * when the player is further away than that.
+     */
+    BOUNDED,
+    /** An A* search per Hug, weighted by tile cost. */
+    A_STAR,
+    /** A Jump Point Search per Hug, for maps without weighted tiles. */
+    JUMP_POINT,
+    /** A search over the room graph per Hug, refining only the next leg on the grid. */
+    HIERARCHICAL,
+    /** A* searches spread over several ticks under a per-tick budget. */
+    TIME_SLICED,
+    /** Windowed cooperative A* per Hug, with Hugs reserving the cells they will use. */
+    COOPERATIVE
+}
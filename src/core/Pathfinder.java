@@ -0,0 +1,24 @@
+package core;
+
+/**
+ * A point-to-point search over a NavGrid. Implementations keep their own scratch state, so a
+ * Pathfinder belongs to one grid and must not be shared between threads.
+ */
+public interface Pathfinder {
+
+    /**
+     * Searches for a path from start to goal. On success the steps can be read with
+     * pathCell, the first step being index 0.
+     * @return true if goal is reachable from start
+     */
+    boolean findPath(int start, int goal);
+
+    /** Number of steps in the last path found, not counting the start cell. */
+    int pathLength();
+
+    /** The i-th step of the last path found, where 0 is the first move from the start. */
+    int pathCell(int i);
+
+    /** Number of cells expanded by the last search. */
+    int expanded();
+}
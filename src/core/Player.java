@@ -2,20 +2,40 @@ package core;
 
 public class Player {
 
-    private Position playerPosition;
+    private int x;
+    private int y;
 
     public Player(Position startPoint) {
-        playerPosition = startPoint;
+        this(startPoint.getX(), startPoint.getY());
+    }
+
+    public Player(int x, int y) {
+        this.x = x;
+        this.y = y;
     }
 
     public Position getPlayerPosition() {
-        return playerPosition;
+        return new Position(x, y);
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
     }
 
     public void setPlayerPosition(Position playerPosition) {
-        this.playerPosition = playerPosition;
+        moveTo(playerPosition.getX(), playerPosition.getY());
+    }
+
+    public void moveTo(int newX, int newY) {
+        this.x = newX;
+        this.y = newY;
     }
+
     public  Position movePosition(int x, int y) {
-        return new Position(playerPosition.getX() + x, playerPosition.getY() + y);
+        return new Position(this.x + x, this.y + y);
     }
 }
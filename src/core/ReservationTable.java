@@ -0,0 +1,99 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Records which agent holds each (cell, time) pair. Backed by an open-addressed hash table
+ * of long keys, so it costs memory in proportion to the number of reservations rather
+ * than to the size of the map, and clearing it between ticks is O(1).
+ */
+public class ReservationTable {
+
+    public static final int FREE = -1;
+
+    private long[] keys;
+    private int[] owners;
+    private int[] stamps;
+    private int mask;
+    private int size;
+    private int epoch = 1;
+
+    public ReservationTable(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2);
+    }
+
+    /** Drops every reservation. */
+    public void clear() {
+        size = 0;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    /** Gives cell at time to owner, replacing any earlier holder. */
+    public void reserve(int cell, int time, int owner) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        long key = key(cell, time);
+        int slot = find(key);
+        if (stamps[slot] != epoch) {
+            stamps[slot] = epoch;
+            keys[slot] = key;
+            size++;
+        }
+        owners[slot] = owner;
+    }
+
+    /** The agent holding cell at time, or FREE. */
+    public int owner(int cell, int time) {
+        int slot = find(key(cell, time));
+        return stamps[slot] == epoch ? owners[slot] : FREE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (stamps[slot] == epoch && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldOwners = owners;
+        int[] oldStamps = stamps;
+        int oldEpoch = epoch;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == oldEpoch) {
+                int slot = find(oldKeys[i]);
+                stamps[slot] = epoch;
+                keys[slot] = oldKeys[i];
+                owners[slot] = oldOwners[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        owners = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        epoch = 1;
+    }
+
+    private static long key(int cell, int time) {
+        return ((long) time << 32) | cell;
+    }
+
+    private static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
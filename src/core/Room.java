@@ -20,9 +20,15 @@ public class Room {
     }
 
     public Position center() {
-        int centerX = this.x + this.width / 2;
-        int centerY = this.y + this.height / 2;
-        return new Position(centerX, centerY);
+        return new Position(centerX(), centerY());
+    }
+
+    public int centerX() {
+        return this.x + this.width / 2;
+    }
+
+    public int centerY() {
+        return this.y + this.height / 2;
     }
 
     public int getX() {
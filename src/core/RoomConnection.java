@@ -0,0 +1,14 @@
+package core;
+
+/**
+ * How WorldGenerator joins its rooms with hallways.
+ */
+public enum RoomConnection {
+    /** Sorts the rooms by centre x and joins each to the next; gives the same maps as always. */
+    CHAIN,
+    /**
+     * Joins the rooms along a minimum spanning tree over their nearest neighbours, plus any
+     * loops asked for, which needs far less hallway in total than the chain.
+     */
+    MST
+}
@@ -0,0 +1,302 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Abstract map of a world: every room is a region, and the passable cells outside rooms
+ * are split into connected corridor regions. A cell with a neighbour in a different region
+ * is an entrance. Entrances are the nodes of the graph, joined by a step of cost 1 to their
+ * neighbour across the border and by the exact walking distance to every other entrance of
+ * their own region. Inside a room that distance is the Manhattan distance; inside a
+ * corridor it is measured once with a breadth-first search.
+ *
+ * Since every path splits into pieces that each stay inside one region, shortest distances
+ * over this graph equal shortest distances over the grid.
+ */
+public class RoomGraph {
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final NavGrid grid;
+    private final int[] region;
+    private final List<Room> rooms;
+    private final int regionCount;
+    private final int[] node;
+    private int[] nodeCell;
+    private int[] regionStart;
+    private int[] regionNodes;
+    private int[] edgeStart;
+    private int[] edgeTarget;
+    private int[] edgeCost;
+
+    private RoomGraph(NavGrid grid, List<Room> rooms, int[] region, int regionCount) {
+        this.grid = grid;
+        this.rooms = rooms;
+        this.region = region;
+        this.regionCount = regionCount;
+        this.node = new int[grid.size()];
+    }
+
+    /**
+     * Builds the graph for the current tiles of grid. Rooms that are not entirely passable,
+     * for example because a wall was placed inside one, are treated as corridor instead.
+     */
+    public static RoomGraph build(NavGrid grid, Collection<Room> candidates) {
+        int[] region = new int[grid.size()];
+        Arrays.fill(region, -1);
+
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : candidates) {
+            if (isOpen(grid, room)) {
+                for (int x = room.getX(); x < room.getX() + room.getWidth(); x++) {
+                    for (int y = room.getY(); y < room.getY() + room.getHeight(); y++) {
+                        region[grid.cell(x, y)] = rooms.size();
+                    }
+                }
+                rooms.add(room);
+            }
+        }
+
+        int regionCount = rooms.size();
+        int[] queue = new int[grid.size()];
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (region[cell] >= 0 || !grid.passable(grid.x(cell), grid.y(cell))) {
+                continue;
+            }
+            region[cell] = regionCount;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = cell;
+            while (head < tail) {
+                int current = queue[head++];
+                for (int i = 0; i < 4; i++) {
+                    int nx = grid.x(current) + DX[i];
+                    int ny = grid.y(current) + DY[i];
+                    if (!grid.inBounds(nx, ny) || !grid.passable(nx, ny)) {
+                        continue;
+                    }
+                    int next = grid.cell(nx, ny);
+                    if (region[next] == -1) {
+                        region[next] = regionCount;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            regionCount++;
+        }
+
+        RoomGraph graph = new RoomGraph(grid, rooms, region, regionCount);
+        graph.findEntrances();
+        graph.connect(queue);
+        return graph;
+    }
+
+    public NavGrid grid() {
+        return grid;
+    }
+
+    /** The rooms used as regions, which excludes rooms that were not entirely passable. */
+    public List<Room> rooms() {
+        return rooms;
+    }
+
+    /** Region of cell, or -1 if the cell is not passable. */
+    public int region(int cell) {
+        return region[cell];
+    }
+
+    public int regionCount() {
+        return regionCount;
+    }
+
+    public boolean isRoom(int region) {
+        return region < rooms.size();
+    }
+
+    public Room room(int region) {
+        return rooms.get(region);
+    }
+
+    public int nodeCount() {
+        return nodeCell.length;
+    }
+
+    public int nodeCell(int n) {
+        return nodeCell[n];
+    }
+
+    /** Entrance node at cell, or -1 if cell is not an entrance. */
+    public int nodeAt(int cell) {
+        return node[cell];
+    }
+
+    public int regionNodeStart(int r) {
+        return regionStart[r];
+    }
+
+    public int regionNodeEnd(int r) {
+        return regionStart[r + 1];
+    }
+
+    public int regionNode(int i) {
+        return regionNodes[i];
+    }
+
+    public int edgeStart(int n) {
+        return edgeStart[n];
+    }
+
+    public int edgeEnd(int n) {
+        return edgeStart[n + 1];
+    }
+
+    public int edgeTarget(int e) {
+        return edgeTarget[e];
+    }
+
+    public int edgeCost(int e) {
+        return edgeCost[e];
+    }
+
+    private static boolean isOpen(NavGrid grid, Room room) {
+        for (int x = room.getX(); x < room.getX() + room.getWidth(); x++) {
+            for (int y = room.getY(); y < room.getY() + room.getHeight(); y++) {
+                if (!grid.inBounds(x, y) || !grid.passable(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void findEntrances() {
+        Arrays.fill(node, -1);
+        int count = 0;
+        int[] perRegion = new int[regionCount + 1];
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (isEntrance(cell)) {
+                node[cell] = count++;
+                perRegion[region[cell] + 1]++;
+            }
+        }
+
+        nodeCell = new int[count];
+        regionStart = perRegion;
+        for (int r = 0; r < regionCount; r++) {
+            regionStart[r + 1] += regionStart[r];
+        }
+        regionNodes = new int[count];
+        int[] fill = Arrays.copyOf(regionStart, regionCount);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (node[cell] >= 0) {
+                nodeCell[node[cell]] = cell;
+                regionNodes[fill[region[cell]]++] = node[cell];
+            }
+        }
+    }
+
+    private boolean isEntrance(int cell) {
+        if (region[cell] < 0) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            int nx = grid.x(cell) + DX[i];
+            int ny = grid.y(cell) + DY[i];
+            if (grid.inBounds(nx, ny)) {
+                int other = region[grid.cell(nx, ny)];
+                if (other >= 0 && other != region[cell]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void connect(int[] queue) {
+        int count = nodeCell.length;
+        int[] dist = new int[grid.size()];
+        Arrays.fill(dist, -1);
+        List<int[]> edges = new ArrayList<>();
+        edgeStart = new int[count + 1];
+
+        for (int n = 0; n < count; n++) {
+            int cell = nodeCell[n];
+            int r = region[cell];
+            for (int i = 0; i < 4; i++) {
+                int nx = grid.x(cell) + DX[i];
+                int ny = grid.y(cell) + DY[i];
+                if (grid.inBounds(nx, ny)) {
+                    int other = grid.cell(nx, ny);
+                    if (region[other] >= 0 && region[other] != r) {
+                        edges.add(new int[]{n, node[other], 1});
+                    }
+                }
+            }
+
+            if (isRoom(r)) {
+                for (int i = regionStart[r]; i < regionStart[r + 1]; i++) {
+                    int m = regionNodes[i];
+                    if (m != n) {
+                        edges.add(new int[]{n, m, manhattan(cell, nodeCell[m])});
+                    }
+                }
+            } else {
+                int reached = corridorDistances(cell, dist, queue);
+                for (int i = regionStart[r]; i < regionStart[r + 1]; i++) {
+                    int m = regionNodes[i];
+                    if (m != n && dist[nodeCell[m]] >= 0) {
+                        edges.add(new int[]{n, m, dist[nodeCell[m]]});
+                    }
+                }
+                for (int i = 0; i < reached; i++) {
+                    dist[queue[i]] = -1;
+                }
+            }
+            edgeStart[n + 1] = edges.size();
+        }
+
+        edgeTarget = new int[edges.size()];
+        edgeCost = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            edgeTarget[e] = edges.get(e)[1];
+            edgeCost[e] = edges.get(e)[2];
+        }
+    }
+
+    /**
+     * Breadth-first search from cell that stays inside its corridor region. Fills dist for
+     * the cells it reaches and leaves them, in order, at the front of queue.
+     * @return number of cells reached
+     */
+    int corridorDistances(int cell, int[] dist, int[] queue) {
+        int r = region[cell];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+        dist[cell] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = 0; i < 4; i++) {
+                int nx = grid.x(current) + DX[i];
+                int ny = grid.y(current) + DY[i];
+                if (!grid.inBounds(nx, ny)) {
+                    continue;
+                }
+                int next = grid.cell(nx, ny);
+                if (region[next] == r && dist[next] < 0) {
+                    dist[next] = dist[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    int manhattan(int a, int b) {
+        return Math.abs(grid.x(a) - grid.x(b)) + Math.abs(grid.y(a) - grid.y(b));
+    }
+}
@@ -0,0 +1,88 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * The rooms placed so far, bucketed by their bottom-left corner in a uniform grid, so testing
+ * a new room for overlap only looks at the few buckets near it instead of every room. With
+ * rooms no bigger than a bucket, a test reads at most nine buckets, which keeps it O(1) on
+ * average however many rooms there are.
+ */
+public class RoomIndex {
+
+    private static final int BUCKET_SHIFT = 4;
+    private static final int EMPTY = -1;
+
+    private final int x0;
+    private final int y0;
+    private final int bucketsWide;
+    private final int bucketsHigh;
+    private final int[] bucketHead;
+    private Room[] rooms = new Room[16];
+    private int[] next = new int[16];
+    private int size;
+    private int maxWidth;
+    private int maxHeight;
+
+    /** An index for rooms inside a width x height map. */
+    public RoomIndex(int width, int height) {
+        this(0, 0, width, height);
+    }
+
+    /** An index for rooms inside the width x height area whose bottom-left tile is (x0, y0). */
+    public RoomIndex(int x0, int y0, int width, int height) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.bucketsWide = (width >> BUCKET_SHIFT) + 1;
+        this.bucketsHigh = (height >> BUCKET_SHIFT) + 1;
+        this.bucketHead = new int[bucketsWide * bucketsHigh];
+        Arrays.fill(bucketHead, EMPTY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(Room room) {
+        if (size == rooms.length) {
+            rooms = Arrays.copyOf(rooms, size * 2);
+            next = Arrays.copyOf(next, size * 2);
+        }
+        int bucket = bucket(bx(room.getX()), by(room.getY()));
+        rooms[size] = room;
+        next[size] = bucketHead[bucket];
+        bucketHead[bucket] = size++;
+        maxWidth = Math.max(maxWidth, room.getWidth());
+        maxHeight = Math.max(maxHeight, room.getHeight());
+    }
+
+    /** Whether room intersects any room in the index, as Room.intersects decides. */
+    public boolean intersectsAny(Room room) {
+        int minBx = bx(room.getX() - maxWidth + 1);
+        int maxBx = bx(room.getX() + room.getWidth() - 1);
+        int minBy = by(room.getY() - maxHeight + 1);
+        int maxBy = by(room.getY() + room.getHeight() - 1);
+        for (int bx = minBx; bx <= maxBx; bx++) {
+            for (int by = minBy; by <= maxBy; by++) {
+                for (int i = bucketHead[bucket(bx, by)]; i != EMPTY; i = next[i]) {
+                    if (room.intersects(rooms[i])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int bx(int x) {
+        return Math.min(bucketsWide - 1, Math.max(0, x - x0) >> BUCKET_SHIFT);
+    }
+
+    private int by(int y) {
+        return Math.min(bucketsHigh - 1, Math.max(0, y - y0) >> BUCKET_SHIFT);
+    }
+
+    private int bucket(int bx, int by) {
+        return bx * bucketsHigh + by;
+    }
+}
@@ -0,0 +1,17 @@
+package core;
+
+/**
+ * How WorldGenerator places its rooms.
+ */
+public enum RoomPlacement {
+    /**
+     * Tries random rooms and keeps those that overlap nothing placed so far; gives the same
+     * maps as always for a seed, but places fewer rooms than asked as the map fills up.
+     */
+    REJECTION,
+    /**
+     * Splits the map, largest part first, into as many parts as rooms are wanted and puts one
+     * room in each, so every room is placed in one pass and none can overlap.
+     */
+    BSP
+}
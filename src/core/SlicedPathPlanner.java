@@ -0,0 +1,249 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Plans Hug routes with A* searches that are spread over several ticks. Each tick gets a
+ * budget of expanded nodes and, optionally, of time; one search runs at a time and is
+ * paused when the budget runs out. Until its new route is ready a Hug keeps following the
+ * one it already has, so the cost of a tick stays bounded however large the map is. Routes
+ * are kept by ActorStore handle, so they stay with their Hug whichever Hugs are due on a tick.
+ *
+ * The next search goes to the due Hug whose last search started longest ago, and among
+ * those to the first handle after the last one served, wrapping round. Going by handle
+ * rather than by position in the due list keeps the turns fair when Hugs of different
+ * speeds are due on different ticks.
+ */
+public class SlicedPathPlanner {
+
+    private static final int CHUNK = 64;
+
+    private final AStar search;
+    private final OccupancyGrid occupancy;
+    private int[][] routes = new int[0][];
+    private int[] routeLength = new int[0];
+    private int[] routePos = new int[0];
+    private long[] servedAt = new long[0];
+    private int[] spareRoute = new int[CHUNK];
+    private int nodesPerTick;
+    private long nanosPerTick;
+    private int activeHug = -1;
+    private int lastServed = -1;
+    private long searchesStarted;
+    private int searchTicks;
+    private int completedSearches;
+    private long totalSearchTicks;
+    private int maxSearchTicks;
+    private int lastSearchTicks;
+
+    /** A planner for the Hugs in occupancy, which it reads to find where a Hug is when its search ends. */
+    public SlicedPathPlanner(NavGrid grid, OccupancyGrid occupancy, int nodesPerTick, long nanosPerTick) {
+        this.search = new AStar(grid);
+        this.occupancy = occupancy;
+        setBudget(nodesPerTick, nanosPerTick);
+    }
+
+    /**
+     * Sets how much search work a tick may do. A time budget of 0 means only the node budget
+     * applies.
+     */
+    public void setBudget(int nodesPerTick, long nanosPerTick) {
+        this.nodesPerTick = Math.max(1, nodesPerTick);
+        this.nanosPerTick = nanosPerTick;
+    }
+
+    /**
+     * Spends this tick's budget on route searches toward goal for the Hugs due to step:
+     * hugHandles holds their handles and hugCells their current cells. The Hugs due may
+     * change from tick to tick.
+     */
+    public void tick(int[] hugCells, int[] hugHandles, int hugCount, ConnectivityIndex connectivity, int goal) {
+        for (int i = 0; i < hugCount; i++) {
+            ensureCapacity(hugHandles[i]);
+        }
+        if (hugCount == 0) {
+            return;
+        }
+
+        long deadline = nanosPerTick > 0 ? System.nanoTime() + nanosPerTick : Long.MAX_VALUE;
+        int budget = nodesPerTick;
+        int started = 0;
+        if (activeHug >= 0) {
+            searchTicks++;
+        }
+
+        while (budget > 0) {
+            if (activeHug < 0) {
+                if (started == hugCount) {
+                    break;
+                }
+                int next = nextDue(hugHandles, hugCount);
+                activeHug = hugHandles[next];
+                lastServed = activeHug;
+                servedAt[activeHug] = ++searchesStarted;
+                started++;
+                searchTicks = 1;
+                if (!connectivity.connected(hugCells[next], goal)) {
+                    routeLength[activeHug] = 0;
+                    activeHug = -1;
+                    continue;
+                }
+                search.start(hugCells[next], goal);
+            }
+
+            int slice = Math.min(budget, CHUNK);
+            int before = search.expanded();
+            int status = search.resume(slice);
+            budget -= Math.max(1, search.expanded() - before);
+            if (status != AStar.SEARCHING) {
+                finish(status);
+            } else if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The cell the given Hug should move to next, or FlowField.UNREACHABLE if it has no
+     * route. A route the Hug has strayed from is dropped.
+     */
+    public int nextStep(int hug, int cell) {
+        if (!hasRoute(hug)) {
+            return FlowField.UNREACHABLE;
+        }
+        int[] route = routes[hug];
+        int length = routeLength[hug];
+        int pos = routePos[hug];
+        if (pos + 1 < length && route[pos + 1] == cell) {
+            pos++;
+        }
+        if (route[pos] != cell) {
+            routeLength[hug] = 0;
+            return FlowField.UNREACHABLE;
+        }
+        routePos[hug] = pos;
+        return pos + 1 < length ? route[pos + 1] : FlowField.UNREACHABLE;
+    }
+
+    public boolean hasRoute(int hug) {
+        return hug < routeLength.length && routeLength[hug] > 0;
+    }
+
+    /**
+     * Drops the given Hug's route, and its search if one is running. Call it when the Hug is
+     * removed, as its handle may be given to a new Hug.
+     */
+    public void forget(int hug) {
+        if (hug < routeLength.length) {
+            routeLength[hug] = 0;
+            servedAt[hug] = 0;
+        }
+        if (activeHug == hug) {
+            activeHug = -1;
+        }
+    }
+
+    /**
+     * Writes the cells of the given Hug's route still ahead of it into cells, as many as fit.
+     * @return how many cells there are, which may be more than were written; 0 if it has no route
+     */
+    public int remainingRoute(int hug, int[] cells) {
+        if (!hasRoute(hug)) {
+            return 0;
+        }
+        int from = routePos[hug] + 1;
+        int length = routeLength[hug];
+        System.arraycopy(routes[hug], from, cells, 0, Math.min(cells.length, length - from));
+        return length - from;
+    }
+
+    /** Whether a search is currently paused between ticks. */
+    public boolean isSearching() {
+        return activeHug >= 0;
+    }
+
+    public int completedSearches() {
+        return completedSearches;
+    }
+
+    /** Number of ticks the most recently finished search was spread over. */
+    public int lastSearchTicks() {
+        return lastSearchTicks;
+    }
+
+    public int maxSearchTicks() {
+        return maxSearchTicks;
+    }
+
+    public double averageSearchTicks() {
+        return completedSearches == 0 ? 0 : (double) totalSearchTicks / completedSearches;
+    }
+
+    private void finish(int status) {
+        if (status == AStar.FOUND) {
+            int length = search.pathLength() + 1;
+            if (spareRoute.length < length) {
+                spareRoute = new int[length * 2];
+            }
+            int[] route = spareRoute;
+            route[0] = search.start();
+            for (int i = 0; i < search.pathLength(); i++) {
+                route[i + 1] = search.pathCell(i);
+            }
+            int pos = indexOf(route, length, occupancy.cellOf(activeHug));
+            if (pos >= 0) {
+                spareRoute = routes[activeHug] != null ? routes[activeHug] : new int[CHUNK];
+                routes[activeHug] = route;
+                routeLength[activeHug] = length;
+                routePos[activeHug] = pos;
+            }
+        } else {
+            routeLength[activeHug] = 0;
+        }
+
+        completedSearches++;
+        totalSearchTicks += searchTicks;
+        maxSearchTicks = Math.max(maxSearchTicks, searchTicks);
+        lastSearchTicks = searchTicks;
+        activeHug = -1;
+    }
+
+    private void ensureCapacity(int hug) {
+        if (hug >= routes.length) {
+            int capacity = Math.max(16, (hug + 1) * 2);
+            routes = Arrays.copyOf(routes, capacity);
+            routeLength = Arrays.copyOf(routeLength, capacity);
+            routePos = Arrays.copyOf(routePos, capacity);
+            servedAt = Arrays.copyOf(servedAt, capacity);
+        }
+    }
+
+    /** Index in hugHandles of the Hug to search for next, as described on the class. */
+    private int nextDue(int[] hugHandles, int hugCount) {
+        int best = -1;
+        for (int i = 0; i < hugCount; i++) {
+            if (best < 0 || comesBefore(hugHandles[i], hugHandles[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private boolean comesBefore(int a, int b) {
+        if (servedAt[a] != servedAt[b]) {
+            return servedAt[a] < servedAt[b];
+        }
+        boolean aAfter = a > lastServed;
+        boolean bAfter = b > lastServed;
+        return aAfter != bAfter ? aAfter : a < b;
+    }
+
+    private static int indexOf(int[] route, int length, int cell) {
+        for (int i = 0; i < length; i++) {
+            if (route[i] == cell) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
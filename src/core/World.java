@@ -1,79 +1,436 @@
 package core;
 
+import tileengine.ArrayTileGrid;
 import tileengine.TETile;
+import tileengine.TileGrid;
 import tileengine.Tileset;
 import utils.RandomUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class World {
 
-    private final TETile[][] tiles;
-    private Player player;
-    private List<Hug> hugs;
+    private static final int DEFAULT_NODES_PER_TICK = 2000;
+    private static final int DEFAULT_SEARCH_RADIUS = 24;
+    private static final int NOT_STUCK = -1;
+
+    /** Returned by randomFloorCell when there is no tile to pick. */
+    public static final int NO_CELL = -1;
+
+    private final TileGrid tiles;
+    private final ActorStore actors;
+    private final OccupancyGrid occupancy;
+    private final FloorIndex freeFloor;
+    private ComponentFloorIndex reachableFloor;
+    private int player;
+    private int hugCount;
+    private int tick;
     private Random random;
-    private List<Position> lastPath = new ArrayList<>();
+    private final NavGrid nav;
+    private final FlowField field;
+    private final ConnectivityIndex connectivity;
+    private PathMode pathMode = PathMode.FLOW_FIELD;
+    private Pathfinder pathfinder;
+    private RoomGraph roomGraph;
+    private LandmarkOracle landmarks;
+    private SlicedPathPlanner planner;
+    private IntentPlanner intentPlanner;
+    private CooperativePlanner cooperative;
+    private ForkJoinPool aiPool = ForkJoinPool.commonPool();
+    private int searchRadius = DEFAULT_SEARCH_RADIUS;
+    private int[] hugCells = new int[0];
+    private int[] hugSlots = new int[0];
+    private int[] hugHandles = new int[0];
+    private int[] intents = new int[0];
+    private int[] deferred = new int[0];
+    private int[] lastPath = new int[0];
+    private int lastPathLength;
+    private int lastPathStart = -1;
+    private int lastPathGoal = -1;
+    private boolean lastPathStale = true;
+    private int[] stuckScores = new int[0];
+    private int[] visibleActors = new int[0];
     private boolean useCustomAvatar = false;
 
-    public World(TETile[][] tiles, long seed) {
+    /** @throws IllegalArgumentException if tiles has more than NavGrid.MAX_CELLS cells */
+    public World(TileGrid tiles, long seed) {
         this.tiles = tiles;
-        this.hugs = new ArrayList<>();
+        this.actors = new ActorStore();
         this.random = new Random(seed);
+        this.nav = new NavGrid(tiles);
+        this.field = new FlowField(nav);
+        this.connectivity = new ConnectivityIndex(nav);
+        this.intentPlanner = new IntentPlanner(field, connectivity, null, aiPool);
+
+        this.occupancy = new OccupancyGrid(nav);
+        this.freeFloor = new FloorIndex(nav.size());
+        for (int x = 0; x < tiles.width(); x++) {
+            for (int y = 0; y < tiles.height(); y++) {
+                if (tiles.get(x, y) == Tileset.FLOOR) {
+                    freeFloor.add(nav.cell(x, y));
+                }
+            }
+        }
 
-        Position start = findStartPosition();
-        this.player = new Player(start);
+        int start = findStartCell();
+        this.player = actors.add(ActorStore.PLAYER, nav.x(start), nav.y(start), 1);
+        placeActor(player, start);
+    }
+
+    /** The terrain, without the player or Hugs; drawActors adds them to a copy for display. */
+    public TileGrid getTiles() {
+        return tiles;
+    }
 
-        if (inBounds(start.getX(), start.getY())) {
-            updateAvatarTile();
+    /** Who stands where, by ActorStore handle. */
+    public OccupancyGrid getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Draws what the player sees into frame, a grid the size of getTiles() that is reused
+     * from frame to frame, without allocating: the tiles, lit only within lampRadius of the
+     * player unless lampRadius is negative, then the first Hug's path if showPath is set,
+     * then the actors, with only those in the lamp's light drawn.
+     */
+    public void drawFrame(TileGrid frame, int lampRadius, boolean showPath) {
+        if (lampRadius < 0) {
+            tiles.copyTo(frame);
+        } else {
+            int centerX = playerX();
+            int centerY = playerY();
+            int nothing = Tileset.NOTHING.id();
+            for (int x = 0; x < tiles.width(); x++) {
+                for (int y = 0; y < tiles.height(); y++) {
+                    int dx = x - centerX;
+                    int dy = y - centerY;
+                    frame.setId(x, y, dx * dx + dy * dy > lampRadius * lampRadius ? nothing : tiles.id(x, y));
+                }
+            }
         }
+
+        if (showPath) {
+            int length = findLastPath();
+            for (int i = 0; i < length; i++) {
+                int x = nav.x(lastPath[i]);
+                int y = nav.y(lastPath[i]);
+                if (frame.inBounds(x, y)) {
+                    frame.set(x, y, Tileset.PATH);
+                }
+            }
+        }
+        drawActors(frame, lampRadius);
     }
 
-    public TETile[][] getTiles() {
-        return tiles;
+    /**
+     * Draws the player and the Hugs onto frame, normally a copy of getTiles(). With a radius
+     * of 0 or more only actors within that distance of the player are drawn, found through the
+     * occupancy grid; a negative radius draws every actor.
+     */
+    public void drawActors(TileGrid frame, int radius) {
+        if (radius < 0) {
+            for (int slot = 0; slot < actors.size(); slot++) {
+                drawActor(frame, actors.handle(slot));
+            }
+            return;
+        }
+        int count = occupancy.within(playerX(), playerY(), radius, visibleActors);
+        if (count > visibleActors.length) {
+            visibleActors = new int[count * 2];
+            occupancy.within(playerX(), playerY(), radius, visibleActors);
+        }
+        for (int i = 0; i < count; i++) {
+            drawActor(frame, visibleActors[i]);
+        }
+    }
+
+    private void drawActor(TileGrid frame, int handle) {
+        int slot = actors.slot(handle);
+        int x = actors.x(slot);
+        int y = actors.y(slot);
+        if (!frame.inBounds(x, y)) {
+            return;
+        }
+        if (actors.kind(slot) == ActorStore.HUG) {
+            frame.set(x, y, Tileset.CELL);
+        } else {
+            frame.set(x, y, useCustomAvatar ? Tileset.AVATAR2 : Tileset.AVATAR);
+        }
     }
 
     public Position getPlayerPosition() {
-        return player.getPlayerPosition();
+        return new Position(playerX(), playerY());
+    }
+
+    public int playerX() {
+        return actors.x(actors.slot(player));
+    }
+
+    public int playerY() {
+        return actors.y(actors.slot(player));
     }
 
     public void setUseCustomAvatar(boolean b) {
         useCustomAvatar = b;
-        updateAvatarTile();
     }
 
     public boolean getUseCustomAvatar() {
         return useCustomAvatar;
     }
 
+    /** Moves the player to p's position. */
     public void setPlayer(Player p) {
-        this.player = p;
+        actors.moveTo(actors.slot(player), p.getX(), p.getY());
+        placeActor(player, nav.cell(p.getX(), p.getY()));
     }
 
+    /** A copy of the player; changing it does not move the player. */
     public Player getPlayer() {
-        return this.player;
+        return new Player(playerX(), playerY());
+    }
+
+    /** Every actor in the world, the player included, for passes that should not allocate. */
+    public ActorStore getActors() {
+        return actors;
+    }
+
+
+    public PathMode getPathMode() {
+        return pathMode;
+    }
+
+    public void setPathMode(PathMode mode) {
+        this.pathMode = mode;
+        this.lastPathStale = true;
+        Supplier<Pathfinder> engines = engineFactory(mode);
+        this.pathfinder = engines == null ? null : engines.get();
+        Arrays.fill(stuckScores, NOT_STUCK);
+        if (mode == PathMode.TIME_SLICED && planner == null) {
+            planner = new SlicedPathPlanner(nav, occupancy, DEFAULT_NODES_PER_TICK, 0);
+        }
+        if (mode == PathMode.COOPERATIVE && cooperative == null) {
+            cooperative = new CooperativePlanner(nav, field);
+        }
+        this.intentPlanner = new IntentPlanner(field, connectivity, engines, aiPool);
+    }
+
+    /** Sets how many steps BOUNDED searches look ahead before steering toward the player's room. */
+    public void setSearchRadius(int radius) {
+        this.searchRadius = radius;
+        if (pathMode == PathMode.BOUNDED) {
+            setPathMode(pathMode);
+        }
+    }
+
+    /**
+     * Sets the pool that Hug moves are planned on. Null plans on the calling thread. The
+     * moves made are the same whatever pool is used.
+     */
+    public void setAiPool(ForkJoinPool pool) {
+        this.aiPool = pool;
+        this.intentPlanner = new IntentPlanner(field, connectivity, engineFactory(pathMode), aiPool);
+    }
+
+    private Supplier<Pathfinder> engineFactory(PathMode mode) {
+        boolean usesRooms = mode == PathMode.HIERARCHICAL || mode == PathMode.BOUNDED;
+        RoomGraph graph = usesRooms ? getRoomGraph() : null;
+        int radius = searchRadius;
+        return switch (mode) {
+            case BFS -> () -> new GridSearch(nav);
+            case BIDIRECTIONAL -> () -> new BidirectionalSearch(nav);
+            case BOUNDED -> () -> new BoundedSearch(nav, graph, radius);
+            case A_STAR -> {
+                LandmarkOracle oracle = getLandmarks();
+                yield () -> new AStar(nav, oracle);
+            }
+            case JUMP_POINT -> () -> new JumpPointSearch(nav);
+            case HIERARCHICAL -> () -> new HierarchicalPathfinder(graph);
+            default -> null;
+        };
     }
 
+    /**
+     * Sets how many nodes, and optionally how many nanoseconds, TIME_SLICED pathfinding may
+     * spend per tick. A time budget of 0 means only the node budget applies.
+     */
+    public void setSearchBudget(int nodesPerTick, long nanosPerTick) {
+        if (planner == null) {
+            planner = new SlicedPathPlanner(nav, occupancy, nodesPerTick, nanosPerTick);
+        } else {
+            planner.setBudget(nodesPerTick, nanosPerTick);
+        }
+    }
+
+    public CooperativePlanner getCooperativePlanner() {
+        return cooperative;
+    }
+
+    public SlicedPathPlanner getSlicedPlanner() {
+        return planner;
+    }
+
+    /** Supplies the room graph of this world's tiles, usually from WorldGenerator.roomGraph(). */
+    public void setRoomGraph(RoomGraph graph) {
+        this.roomGraph = graph;
+        if (pathMode == PathMode.HIERARCHICAL || pathMode == PathMode.BOUNDED) {
+            setPathMode(pathMode);
+        }
+    }
+
+    /**
+     * Builds the room graph from the rooms this world was generated with, such as
+     * WorldGenerator.getRooms(). Rooms that are no longer entirely passable count as corridor.
+     */
+    public void setRooms(Collection<Room> rooms) {
+        setRoomGraph(RoomGraph.build(nav, rooms));
+    }
+
+    /** Whether the landmark oracle has been built or loaded, so getLandmarks returns at once. */
+    public boolean hasLandmarks() {
+        return landmarks != null;
+    }
+
+    /** The landmark oracle for this world, built on first use around the player. */
+    public LandmarkOracle getLandmarks() {
+        if (landmarks == null) {
+            landmarks = LandmarkOracle.build(nav, nav.cell(playerX(), playerY()),
+                    LandmarkOracle.DEFAULT_LANDMARKS, aiPool);
+        }
+        return landmarks;
+    }
+
+    /**
+     * Uses an oracle stored with LandmarkOracle.toBytes instead of building one.
+     * @return false if the bytes were not written for this world, in which case nothing changes
+     */
+    public boolean loadLandmarks(byte[] bytes) {
+        LandmarkOracle oracle = LandmarkOracle.fromBytes(bytes, nav);
+        if (oracle == null) {
+            return false;
+        }
+        this.landmarks = oracle;
+        if (pathMode == PathMode.A_STAR) {
+            setPathMode(pathMode);
+        }
+        return true;
+    }
+
+    public RoomGraph getRoomGraph() {
+        if (roomGraph == null) {
+            roomGraph = RoomGraph.build(nav, new ArrayList<>());
+        }
+        return roomGraph;
+    }
 
     public List<Position> getLastPath() {
-        return lastPath;
+        int length = findLastPath();
+        List<Position> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(new Position(nav.x(lastPath[i]), nav.y(lastPath[i])));
+        }
+        return path;
     }
 
-    public void movePlayer(int destX, int destY) {
-        if (player == null) {
-            return;
+    /**
+     * Finds the path the first Hug would follow to the player, without allocating once the
+     * path buffer is large enough. Read it with lastPathCell, cellX and cellY. The path is
+     * kept and only searched for again once that Hug or the player has moved, the terrain
+     * has changed or the path mode has, so drawing it every frame costs no search. In
+     * TIME_SLICED mode it is copied from the planner's current route each time instead.
+     * @return the number of cells on the path, 0 if there is none
+     */
+    public int findLastPath() {
+        int hug = firstHugSlot();
+        if (hug < 0) {
+            return 0;
+        }
+        int startCell = nav.cell(actors.x(hug), actors.y(hug));
+        int goalCell = nav.cell(playerX(), playerY());
+        if (pathMode == PathMode.TIME_SLICED || lastPathStale || startCell != lastPathStart
+                || goalCell != lastPathGoal) {
+            lastPathLength = searchLastPath(hug, startCell, goalCell);
+            lastPathStart = startCell;
+            lastPathGoal = goalCell;
+            lastPathStale = false;
+        }
+        return lastPathLength;
+    }
+
+    private int searchLastPath(int hug, int startCell, int goalCell) {
+        if (!connectivity.connected(startCell, goalCell)) {
+            return 0;
+        }
+
+        if (pathMode == PathMode.TIME_SLICED) {
+            int length = planner.remainingRoute(actors.handle(hug), lastPath);
+            if (length > lastPath.length) {
+                lastPath = new int[length * 2];
+                planner.remainingRoute(actors.handle(hug), lastPath);
+            }
+            return length;
+        }
+
+        if (pathfinder != null) {
+            if (!pathfinder.findPath(startCell, goalCell)) {
+                return 0;
+            }
+            int length = 0;
+            for (int i = 0; i < pathfinder.pathLength(); i++) {
+                length = addPathCell(length, pathfinder.pathCell(i));
+            }
+            return length;
+        }
+
+        if (field.goal() < 0) {
+            return 0;
+        }
+        int length = 0;
+        int cell = field.nextStep(startCell);
+        while (cell != FlowField.UNREACHABLE) {
+            length = addPathCell(length, cell);
+            cell = field.nextStep(cell);
         }
+        return length;
+    }
+
+    private int addPathCell(int length, int cell) {
+        if (length == lastPath.length) {
+            lastPath = Arrays.copyOf(lastPath, Math.max(16, length * 2));
+        }
+        lastPath[length] = cell;
+        return length + 1;
+    }
+
+    /** The i-th cell found by the last call to findLastPath. */
+    public int lastPathCell(int i) {
+        return lastPath[i];
+    }
 
-        Position current = player.getPlayerPosition();
-        int newX = current.getX() + destX;
-        int newY = current.getY() + destY;
+    public int cellX(int cell) {
+        return nav.x(cell);
+    }
+
+    public int cellY(int cell) {
+        return nav.y(cell);
+    }
+
+    public void movePlayer(int destX, int destY) {
+        int currentX = playerX();
+        int currentY = playerY();
+        int newX = currentX + destX;
+        int newY = currentY + destY;
 
         if (!inBounds(newX, newY)) {
             return;
         }
 
-        TETile dest = tiles[newX][newY];
+        TETile dest = tiles.get(newX, newY);
 
         if(dest == Tileset.WALL || dest == Tileset.NOTHING) {
             return;
@@ -84,89 +441,162 @@ public class World {
             return;
         }
 
-        tiles[current.getX()][current.getY()] = Tileset.FLOOR;
-
-        if (useCustomAvatar) {
-            tiles[newX][newY] = Tileset.AVATAR2;
-        } else {
-            tiles[newX][newY] = Tileset.AVATAR;
-        }
-        player.setPlayerPosition(new Position(newX, newY));
+        actors.moveTo(actors.slot(player), newX, newY);
+        placeActor(player, nav.cell(newX, newY));
 
     }
 
     public void forcePlayerPosition(Position p) {
-        if (player != null) {
-            Position current = player.getPlayerPosition();
-            if (inBounds(current.getX(), current.getY())) {
-                tiles[current.getX()][current.getY()] = Tileset.FLOOR;
-            }
-        }
-
         if (inBounds(p.getX(), p.getY())) {
-            this.player = new Player(p);
-            updateAvatarTile();
+            actors.moveTo(actors.slot(player), p.getX(), p.getY());
+            placeActor(player, nav.cell(p.getX(), p.getY()));
         }
     }
 
     public TETile getTile(int x, int y) {
-        return tiles[x][y];
+        return tiles.get(x, y);
     }
 
+    /** Copies of the Hugs, in the order they move; changing them does not move the Hugs. */
     public List<Hug> getHugs() {
-        return this.hugs;
+        List<Hug> hugs = new ArrayList<>(hugCount);
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG) {
+                hugs.add(new Hug(actors.x(slot), actors.y(slot)));
+            }
+        }
+        return hugs;
+    }
+
+    public int hugCount() {
+        return hugCount;
     }
 
 
     public void setTile(int x, int y, TETile t) {
-        this.tiles[x][y] = t;
+        boolean wasPassable = nav.passable(x, y);
+        this.tiles.set(x, y, t);
+        int cell = nav.cell(x, y);
+        if (nav.passable(x, y) != wasPassable) {
+            lastPathStale = true;
+            field.cellChanged(nav.cell(x, y));
+            connectivity.cellChanged(nav.cell(x, y));
+            if (roomGraph != null) {
+                roomGraph = RoomGraph.build(nav, roomGraph.rooms());
+            }
+            boolean opened = nav.passable(x, y);
+            if (opened) {
+                landmarks = null;
+            }
+            if (pathMode == PathMode.HIERARCHICAL || pathMode == PathMode.BOUNDED
+                    || (opened && pathMode == PathMode.A_STAR)) {
+                setPathMode(pathMode);
+            }
+        }
+        if (t == Tileset.FLOOR && !occupancy.occupied(cell)) {
+            addFreeFloor(cell);
+        } else {
+            removeFreeFloor(cell);
+        }
     }
 
-    public void addHug(Hug hug) {
-        this.hugs.add(hug);
-        Position p = hug.getHugPosition();
-        if (inBounds(p.getX(), p.getY())) {
-            tiles[p.getX()][p.getY()] = Tileset.CELL;
+    public int addHug(Hug hug) {
+        return addHug(hug.getX(), hug.getY(), 1);
+    }
+
+    /**
+     * Adds a Hug that steps once every speed ticks.
+     * @return its handle in getActors()
+     */
+    public int addHug(int x, int y, int speed) {
+        hugCount++;
+        int handle = actors.add(ActorStore.HUG, x, y, speed);
+        if (inBounds(x, y)) {
+            placeActor(handle, nav.cell(x, y));
         }
+        return handle;
+    }
+
+    /** Removes the Hug with the given handle. The last Hug takes its place in the move order. */
+    public void removeHug(int handle) {
+        int cell = occupancy.cellOf(handle);
+        if (cell != OccupancyGrid.EMPTY) {
+            occupancy.remove(handle);
+            releaseCell(cell);
+        }
+        if (planner != null) {
+            planner.forget(handle);
+        }
+        if (handle < stuckScores.length) {
+            stuckScores[handle] = NOT_STUCK;
+        }
+        actors.remove(handle);
+        hugCount--;
     }
 
     public boolean inBounds(int x, int y) {
-        return x >= 0 && x < tiles.length && y >= 0 && y < tiles[0].length;
+        return tiles.inBounds(x, y);
     }
 
-    private Position findStartPosition() {
-        int width = tiles.length;
-        int height = tiles[0].length;
+    private int findStartCell() {
+        return freeFloor.size() > 0 ? freeFloor.get(0) : nav.cell(0, 0);
+    }
 
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (tiles[x][y] == Tileset.FLOOR) {
-                    return new Position(x, y);
-                }
-            }
+    /** Puts actor on cell, taking the cell out of freeFloor and returning the one it left. */
+    private void placeActor(int actor, int cell) {
+        int from = occupancy.cellOf(actor);
+        if (from == OccupancyGrid.EMPTY) {
+            occupancy.add(actor, cell);
+        } else {
+            occupancy.move(actor, cell);
+        }
+        removeFreeFloor(cell);
+        if (from != OccupancyGrid.EMPTY && from != cell) {
+            releaseCell(from);
+        }
+    }
+
+    private void releaseCell(int cell) {
+        if (!occupancy.occupied(cell) && tiles.get(nav.x(cell), nav.y(cell)) == Tileset.FLOOR) {
+            addFreeFloor(cell);
+        }
+    }
+
+    private void addFreeFloor(int cell) {
+        freeFloor.add(cell);
+        if (reachableFloor != null) {
+            reachableFloor.add(cell);
+        }
+    }
+
+    private void removeFreeFloor(int cell) {
+        freeFloor.remove(cell);
+        if (reachableFloor != null) {
+            reachableFloor.remove(cell);
         }
-        return new Position(0, 0);
     }
 
     public String save() {
         StringBuilder stringBuilder = new StringBuilder();
 
-        stringBuilder.append(player.getPlayerPosition().getX()).append(",");
-        stringBuilder.append(player.getPlayerPosition().getY()).append(";");
+        stringBuilder.append(playerX()).append(",");
+        stringBuilder.append(playerY()).append(";");
 
-        stringBuilder.append(hugs.size()).append(";");
-        for (Hug hug : hugs) {
-            stringBuilder.append(hug.getHugPosition().getX()).append(",");
-            stringBuilder.append(hug.getHugPosition().getY()).append(";");
+        stringBuilder.append(hugCount).append(";");
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG) {
+                stringBuilder.append(actors.x(slot)).append(",");
+                stringBuilder.append(actors.y(slot)).append(";");
+            }
         }
 
-        int width = tiles.length;
-        int height = tiles[0].length;
+        int width = tiles.width();
+        int height = tiles.height();
         stringBuilder.append(width).append(",").append(height).append(";");
 
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
-                stringBuilder.append(tiles[x][y].id());
+                stringBuilder.append(tiles.id(x, y));
                 if (!(x == width - 1 && y == height - 1)) {
                     stringBuilder.append(",");
                 }
@@ -192,21 +622,21 @@ public class World {
             String[] hugs = parts[index++].split(",");
             int hugX = Integer.parseInt(hugs[0]);
             int hugY = Integer.parseInt(hugs[1]);
-            hugList.add(new Hug(new Position(hugX, hugY)));
+            hugList.add(new Hug(hugX, hugY));
         }
 
         String[] widthHeight = parts[index++].split(",");
         int width = Integer.parseInt(widthHeight[0]);
         int height = Integer.parseInt(widthHeight[1]);
 
-        TETile[][] grid = new TETile[width][height];
+        TileGrid grid = new ArrayTileGrid(width, height);
         String[] tileIDs = parts[index].split(",");
 
         int k = 0;
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 int id = Integer.parseInt(tileIDs[k++]);
-                grid[x][y] = tileFromID(id);
+                grid.set(x, y, tileFromID(id));
             }
         }
         World world = new World(grid, seed);
@@ -219,9 +649,10 @@ public class World {
         return world;
     }
 
+    /** Saves from before OccupancyGrid kept actors in the tiles; they load as the floor under them. */
     private static TETile tileFromID(int id) {
-        if (id == Tileset.AVATAR.id()) {
-            return Tileset.AVATAR;
+        if (id == Tileset.AVATAR.id() || id == Tileset.AVATAR2.id() || id == Tileset.CELL.id()) {
+            return Tileset.FLOOR;
         } else if (id == Tileset.FLOOR.id()) {
             return Tileset.FLOOR;
         } else if (id == Tileset.WALL.id()) {
@@ -232,142 +663,212 @@ public class World {
             return Tileset.EXIT;
         } else if (id == Tileset.PATH.id()) {
             return Tileset.PATH;
-        } else if (id == Tileset.AVATAR2.id()) {
-            return Tileset.AVATAR2;
         }
         return Tileset.NOTHING;
     }
 
     public boolean moveHugs() {
-        if (player == null || hugs == null || hugs.isEmpty()) {
+        if (hugCount == 0) {
             return false;
         }
 
-        Hug hug = hugs.get(0);
-        Position start = hug.getHugPosition();
-        Position goal = player.getPlayerPosition();
-        int w = tiles.length;
-        int h = tiles[0].length;
-
-        boolean[][] visited = new boolean[w][h];
-        Position[][] prev = new Position[w][h];
-
-        ArrayList<Position> queue = new ArrayList<>();
-        queue.add(start);
-        visited[start.getX()][start.getY()] = true;
-
-        int index = 0;
-        boolean found = false;
-
-        int[] diffx = {1, -1, 0, 0};
-        int[] diffy = {0, 0, 1, -1};
+        int goalCell = nav.cell(playerX(), playerY());
+        int count = dueHugs();
+        int[] cells = hugCells;
+        tick++;
+        if (intents.length < count) {
+            intents = new int[cells.length];
+            deferred = new int[cells.length];
+        }
 
-        while (index < queue.size()) {
-            Position currently = queue.get(index++);
-            if (currently.same(goal)) {
-                found = true;
-                break;
+        if (pathMode == PathMode.TIME_SLICED) {
+            planner.tick(cells, hugHandles, count, connectivity, goalCell);
+            for (int i = 0; i < count; i++) {
+                boolean reachable = connectivity.connected(cells[i], goalCell);
+                intents[i] = reachable ? planner.nextStep(hugHandles[i], cells[i]) : FlowField.UNREACHABLE;
+            }
+        } else if (pathMode == PathMode.COOPERATIVE) {
+            field.update(goalCell);
+            cooperative.plan(cells, count, goalCell, intents);
+        } else {
+            if (pathMode == PathMode.FLOW_FIELD) {
+                field.update(goalCell);
+            }
+            intentPlanner.plan(cells, count, goalCell, intents);
+            if (pathMode == PathMode.BOUNDED) {
+                followFieldWhereStuck(cells, count, goalCell);
             }
+        }
 
-            for (int i = 0; i < 4; i++) {
-                int newx = currently.getX() + diffx[i];
-                int newy = currently.getY() + diffy[i];
+        return commitMoves(cells, count, goalCell);
+    }
 
-                if (!inBounds(newx, newy)) {
+    /**
+     * Moves Hugs that BOUNDED search has left stuck along the flow field instead. A Hug is
+     * stuck when nothing in its radius looks closer to a goal it can reach than where it
+     * stands, such as at the end of a dead end pointing away from it. Following the search
+     * again one step out would lead straight back, so the Hug keeps to the field until it
+     * stands somewhere that looks closer than where it got stuck. The field is brought up to
+     * date only on ticks where some Hug needs it.
+     */
+    private void followFieldWhereStuck(int[] cells, int count, int goalCell) {
+        BoundedSearch bounded = (BoundedSearch) pathfinder;
+        boolean fieldReady = false;
+        for (int i = 0; i < count; i++) {
+            int handle = hugHandles[i];
+            if (handle >= stuckScores.length) {
+                int old = stuckScores.length;
+                stuckScores = Arrays.copyOf(stuckScores, Math.max(16, (handle + 1) * 2));
+                Arrays.fill(stuckScores, old, stuckScores.length, NOT_STUCK);
+            }
+            int score = stuckScores[handle];
+            if (score == NOT_STUCK) {
+                if (intents[i] != FlowField.UNREACHABLE || cells[i] == goalCell
+                        || !connectivity.connected(cells[i], goalCell)) {
                     continue;
                 }
+                stuckScores[handle] = bounded.estimatedDistance(cells[i], goalCell);
+            } else if (bounded.estimatedDistance(cells[i], goalCell) < score) {
+                stuckScores[handle] = NOT_STUCK;
+                continue;
+            }
+            if (!fieldReady) {
+                field.update(goalCell);
+                fieldReady = true;
+            }
+            intents[i] = field.nextStep(cells[i]);
+        }
+    }
 
-                if (visited[newx][newy]) {
-                    continue;
-                }
+    /**
+     * Applies the planned moves one Hug at a time, in store order, and records each Hug's
+     * state. In COOPERATIVE mode a Hug stepping into a cell that another Hug is about to leave
+     * waits for it and retries. A Hug that reaches the player stays where it is, but the
+     * other Hugs still take their moves that tick.
+     * @return true if a Hug caught the player
+     */
+    private boolean commitMoves(int[] cells, int count, int goalCell) {
+        boolean caught = false;
+        int waiting = 0;
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == goalCell) {
+                caught = true;
+                continue;
+            }
 
-                if (tiles[newx][newy] == Tileset.WALL) {
-                    continue;
-                }
+            int nextCell = intents[i];
+            if (nextCell == FlowField.UNREACHABLE) {
+                actors.setState(hugSlots[i], ActorStore.LOST);
+                continue;
+            }
+            if (nextCell == cells[i]) {
+                actors.setState(hugSlots[i], ActorStore.WAITING);
+                continue;
+            }
+            if (nextCell == goalCell) {
+                caught = true;
+                continue;
+            }
 
-                visited[newx][newy] = true;
-                prev[newx][newy] = currently;
-                queue.add(new Position(newx, newy));
+            if (occupancy.occupied(nextCell)) {
+                actors.setState(hugSlots[i], ActorStore.WAITING);
+                if (pathMode == PathMode.COOPERATIVE) {
+                    deferred[waiting++] = i;
+                }
+                continue;
             }
+            moveHug(i, nextCell);
         }
 
-        if (!found) {
-            lastPath = new ArrayList<>();
-            return false;
+        while (waiting > 0) {
+            int stillWaiting = 0;
+            for (int k = 0; k < waiting; k++) {
+                int i = deferred[k];
+                if (occupancy.occupied(intents[i])) {
+                    deferred[stillWaiting++] = i;
+                } else {
+                    moveHug(i, intents[i]);
+                }
+            }
+            if (stillWaiting == waiting) {
+                break;
+            }
+            waiting = stillWaiting;
         }
+        return caught;
+    }
 
-        ArrayList<Position> path = new ArrayList<>();
-        Position step = goal;
+    private void moveHug(int hug, int nextCell) {
+        int slot = hugSlots[hug];
+        actors.moveTo(slot, nav.x(nextCell), nav.y(nextCell));
+        actors.setState(slot, ActorStore.CHASING);
+        placeActor(actors.handle(slot), nextCell);
+    }
 
-        while (!step.same(start)) {
-            path.add(step);
-            step = prev[step.getX()][step.getY()];
-            if (step == null) {
-                break;
+    /** Fills hugCells, hugSlots and hugHandles with the Hugs that step this tick and returns how many. */
+    private int dueHugs() {
+        if (hugCells.length < actors.size()) {
+            hugCells = new int[actors.size() * 2];
+            hugSlots = new int[hugCells.length];
+            hugHandles = new int[hugCells.length];
+        }
+        int count = 0;
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG && tick % actors.speed(slot) == 0) {
+                hugSlots[count] = slot;
+                hugHandles[count] = actors.handle(slot);
+                hugCells[count++] = nav.cell(actors.x(slot), actors.y(slot));
             }
         }
+        return count;
+    }
 
-        lastPath = path;
-        if (!path.isEmpty()) {
-            Position nextStep = path.get(path.size() - 1);
-            if (nextStep.same(goal)) {
-                return true;
+    private int firstHugSlot() {
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG) {
+                return slot;
             }
-
-            tiles[start.getX()][start.getY()] = Tileset.FLOOR;
-
-            hug.setHugPosition(nextStep);
-            tiles[nextStep.getX()][nextStep.getY()] = Tileset.CELL;
         }
-        return false;
+        return -1;
     }
 
     public Position randomFloorTile() {
-        int width = tiles.length;
-        int height = tiles[0].length;
-
-        while (true) {
-            int x = RandomUtils.uniform(random, width);
-            int y = RandomUtils.uniform(random, height);
-
-            if (tiles[x][y] == Tileset.FLOOR && !player.getPlayerPosition().same(new Position(x, y))) {
-                return new Position(x, y);
-            }
-        }
+        return randomFloorTile(false);
+    }
 
+    /**
+     * Picks a random floor tile that no actor stands on. If reachable is true the tile is
+     * also in the same connected area as the player. Returns null if there is no such tile.
+     */
+    public Position randomFloorTile(boolean reachable) {
+        int cell = randomFloorCell(reachable);
+        return cell == NO_CELL ? null : new Position(nav.x(cell), nav.y(cell));
     }
 
-    public void updateAvatarTile() {
-        if (player == null) {
-            return;
+    /**
+     * As randomFloorTile, but returns the tile as a cell that cellX and cellY unpack, or
+     * NO_CELL. Draws from the index of free floor cells, or when reachable is true from those
+     * cells grouped by connected area, so either way it is a single draw. The grouping is built
+     * on the first reachable pick and again after any change in passability.
+     */
+    public int randomFloorCell(boolean reachable) {
+        int free = freeFloor.size();
+        if (free == 0) {
+            return NO_CELL;
         }
-
-        Position p = player.getPlayerPosition();
-        if (!inBounds(p.getX(), p.getY())) {
-            return;
+        if (!reachable) {
+            return freeFloor.get(RandomUtils.uniform(random, free));
         }
 
-        if (useCustomAvatar) {
-            tiles[p.getX()][p.getY()] = Tileset.AVATAR2;
-        } else {
-            tiles[p.getX()][p.getY()] = Tileset.AVATAR;
+        if (reachableFloor == null) {
+            reachableFloor = new ComponentFloorIndex(freeFloor, connectivity, nav.size());
         }
+        int cell = reachableFloor.randomCell(nav.cell(playerX(), playerY()), random);
+        return cell < 0 ? NO_CELL : cell;
     }
 
     public boolean isOnExit() {
-        Position p = player.getPlayerPosition();
-        return tiles[p.getX()][p.getY()] == Tileset.EXIT;
-    }
-
-    private List<Position> reconstructPath(Position[][] prev, int pathx, int pathy) {
-        List<Position> path = new ArrayList<>();
-        Position currently = prev[pathx][pathy];
-
-        while (currently != null) {
-            path.add(currently);
-            currently = prev[currently.getX()][currently.getY()];
-        }
-        return path;
+        return tiles.get(playerX(), playerY()) == Tileset.EXIT;
     }
 
 }
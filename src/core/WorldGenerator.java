@@ -1,10 +1,14 @@
 package core;
 
-import tileengine.TETile;
+import tileengine.ArrayTileGrid;
+import tileengine.TileGrid;
 import tileengine.Tileset;
 import utils.RandomUtils;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 public class WorldGenerator {
 
@@ -14,28 +18,96 @@ public class WorldGenerator {
     private static final int MAX_ROOM_WIDTH = 10;
     private static final int MIN_ROOM_HEIGHT = 3;
     private static final int MAX_ROOM_HEIGHT = 8;
+    private static final int MIN_PART_WIDTH = MIN_ROOM_WIDTH + 1;
+    private static final int MIN_PART_HEIGHT = MIN_ROOM_HEIGHT + 1;
+    private static final int REGION_WIDTH = 80;
+    private static final int REGION_HEIGHT = 40;
+    private static final long ROOM_STAGE = 1;
+    private static final int K_NEAREST = 8;
     private final int width;
     private final int height;
 
     private final long seed;
     private final Random random;
 
-    private final HashSet<Room> rooms;
+    private final LinkedHashSet<Room> rooms;
     private final ArrayList<Hallway> hallways;
-    private final TETile[][] world;
+    private final TileGrid world;
+    private final GenerationMode mode;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int minRooms = MIN_ROOMS;
+    private int maxRooms = MAX_ROOMS;
+    private RoomPlacement placement = RoomPlacement.REJECTION;
+    private RoomConnection connection = RoomConnection.CHAIN;
+    private double loops;
+
+    /** A rectangle of the map from (x0, y0) up to but not including (x1, y1). */
+    private record Region(int x0, int y0, int x1, int y1) {
+        long area() {
+            return (long) (x1 - x0) * (y1 - y0);
+        }
+    }
 
     public WorldGenerator(int width, int height, long seed) {
-        this.width = width;
-        this.height = height;
+        this(new ArrayTileGrid(width, height), seed);
+    }
+
+    /** Generates into world, which can be any TileGrid, such as a MappedTileGrid. */
+    public WorldGenerator(TileGrid world, long seed) {
+        this(world, seed, GenerationMode.LEGACY);
+    }
+
+    public WorldGenerator(TileGrid world, long seed, GenerationMode mode) {
+        this.mode = mode;
+        this.width = world.width();
+        this.height = world.height();
         this.seed = seed;
         this.random = new Random(seed);
 
-        this.rooms = new HashSet<>();
+        this.rooms = new LinkedHashSet<>();
         this.hallways = new ArrayList<>();
-        this.world = new TETile[width][height];
+        this.world = world;
+    }
+
+    /** Sets the pool SPLIT mode generates regions on. Null generates on the calling thread. */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets how many rooms generateWorld tries to place: a count drawn from min (inclusive) to
+     * max (exclusive), for the whole map in LEGACY mode and per region in SPLIT mode. The
+     * default, 16 to 23, keeps the maps the game has always made.
+     */
+    public void setRoomCount(int min, int max) {
+        if (min < 1 || max <= min) {
+            throw new IllegalArgumentException("room count range must satisfy 1 <= min < max");
+        }
+        this.minRooms = min;
+        this.maxRooms = max;
+    }
+
+    public void setRoomPlacement(RoomPlacement placement) {
+        this.placement = placement;
+    }
+
+    public void setRoomConnection(RoomConnection connection) {
+        this.connection = connection;
     }
 
-    public TETile[][] generateWorld() {
+    /**
+     * Sets how many hallways MST connection adds beyond the tree, as a fraction of the rooms;
+     * each closes a loop. The default, 0, adds none.
+     */
+    public void setLoops(double loops) {
+        this.loops = loops;
+    }
+
+    public TileGrid generateWorld() {
+        if (mode == GenerationMode.SPLIT) {
+            generateSplit();
+            return this.world;
+        }
         initializeTiles();
         generateRooms();
         connectRooms();
@@ -46,15 +118,16 @@ public class WorldGenerator {
     }
 
     private void initializeTiles() {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                this.world[x][y] = Tileset.NOTHING;
-            }
-        }
+        this.world.fill(Tileset.NOTHING);
     }
 
     private void generateRooms() {
-        int numRooms = RandomUtils.uniform(random, MIN_ROOMS, MAX_ROOMS);
+        int numRooms = RandomUtils.uniform(random, this.minRooms, this.maxRooms);
+        if (this.placement == RoomPlacement.BSP) {
+            rooms.addAll(partitionRooms(new Region(0, 0, this.width - 1, this.height - 1), numRooms, random));
+            return;
+        }
+        RoomIndex placed = new RoomIndex(this.width, this.height);
         int attempts = 0;
 
         while (rooms.size() < numRooms && attempts < numRooms * MAX_ROOM_WIDTH) {
@@ -68,8 +141,9 @@ public class WorldGenerator {
 
             Room possibleRoom = new Room(x, y, w, h);
 
-            if (!this.overlaps(possibleRoom)) {
+            if (!placed.intersectsAny(possibleRoom)) {
                 rooms.add(possibleRoom);
+                placed.add(possibleRoom);
             }
         }
     }
@@ -78,6 +152,10 @@ public class WorldGenerator {
         if (rooms.size() < 2) {
             return;
         }
+        if (this.connection == RoomConnection.MST) {
+            this.hallways.addAll(treeHallways(rooms.toArray(new Room[0]), this.loops));
+            return;
+        }
 
         List<Room> sortedRooms = new ArrayList<>(rooms);
         roomSorter(sortedRooms);
@@ -86,68 +164,110 @@ public class WorldGenerator {
             Room a = sortedRooms.get(i);
             Room b = sortedRooms.get(i + 1);
 
-            Position centerA = a.center();
-            Position centerB = b.center();
-
-            createHallway(centerA, centerB);
+            createHallway(a.centerX(), a.centerY(), b.centerX(), b.centerY());
 
         }
 
     }
 
+    /**
+     * Orders list by centre x exactly as a selection sort does, ties included: step i takes the
+     * first room with the smallest centre x from position i on and swaps it into position i.
+     * A min tree over the positions finds that room in O(log n), so sorting is O(n log n).
+     */
     private void roomSorter(List<Room> list) {
-        for (int i = 0; i < list.size(); i++) {
-
-            int minimumIndex = i;
-            int minimumX = list.get(i).center().getX();
-
-            for (int j = i + 1; j < list.size(); j++) {
-                Room room = list.get(j);
-                int centerX = room.center().getX();
-
-                if (centerX < minimumX) {
-                    minimumX = centerX;
-                    minimumIndex = j;
-                }
-            }
+        int n = list.size();
+        int leaves = 1;
+        while (leaves < n) {
+            leaves <<= 1;
+        }
+        int[] keys = new int[n];
+        int[] tree = new int[2 * leaves];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < n; i++) {
+            keys[i] = list.get(i).centerX();
+            tree[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = first(keys, tree[2 * node], tree[2 * node + 1]);
+        }
 
+        for (int i = 0; i < n; i++) {
+            int minimumIndex = tree[1];
             if (minimumIndex != i) {
                 Room temp = list.get(i);
                 list.set(i, list.get(minimumIndex));
                 list.set(minimumIndex, temp);
+                keys[minimumIndex] = keys[i];
+                updateLeaf(tree, keys, leaves + minimumIndex, minimumIndex);
             }
+            updateLeaf(tree, keys, leaves + i, -1);
+        }
+    }
+
+    private static void updateLeaf(int[] tree, int[] keys, int leaf, int position) {
+        tree[leaf] = position;
+        for (int node = leaf >> 1; node > 0; node >>= 1) {
+            tree[node] = first(keys, tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /** Of two positions, the one with the smaller key, the earlier one on a tie; -1 is none. */
+    private static int first(int[] keys, int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
         }
+        if (keys[b] < keys[a] || keys[b] == keys[a] && b < a) {
+            return b;
+        }
+        return a;
     }
 
     private void drawRooms() {
         for (Room room : rooms) {
-            for (int x = room.getX(); x < room.getX() + room.getWidth(); x++) {
-                for (int y = room.getY(); y < room.getY() + room.getHeight(); y++) {
-                    this.world[x][y] = Tileset.FLOOR;
-                }
+            drawRoom(room);
+        }
+    }
+
+    private void drawRoom(Room room) {
+        for (int x = room.getX(); x < room.getX() + room.getWidth(); x++) {
+            for (int y = room.getY(); y < room.getY() + room.getHeight(); y++) {
+                this.world.set(x, y, Tileset.FLOOR);
             }
         }
     }
 
     private void drawHallways() {
         for (Hallway hallway: hallways) {
-            for (Position position : hallway.tiles()) {
-                if (position.getX() >= 0 && position.getX() < this.width && position.getY() >= 0
-                        && position.getY() < this.height) {
-                    if (this.world[position.getX()][position.getY()] == Tileset.NOTHING) {
-                        this.world[position.getX()][position.getY()] = Tileset.FLOOR;
-                    }
+            drawHallway(hallway);
+        }
+    }
+
+    private void drawHallway(Hallway hallway) {
+        for (int i = 0; i < hallway.size(); i++) {
+            int x = Coords.x(hallway.tile(i));
+            int y = Coords.y(hallway.tile(i));
+            if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
+                if (this.world.get(x, y) == Tileset.NOTHING) {
+                    this.world.set(x, y, Tileset.FLOOR);
                 }
             }
         }
     }
 
     private void addWalls() {
+        addWalls(0, 0, this.width, this.height);
+    }
 
-        for (int x = 0; x < this.width; x++) {
-            for (int y = 0; y < this.height; y++) {
+    private void addWalls(int x0, int y0, int x1, int y1) {
 
-                if (this.world[x][y] == Tileset.NOTHING) {
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+
+                if (this.world.get(x, y) == Tileset.NOTHING) {
 
                     boolean isWall = false;
 
@@ -159,14 +279,14 @@ public class WorldGenerator {
 
                             if (newX >= 0 && newX < this.width && newY >= 0 && newY < this.height) {
 
-                                if (this.world[newX][newY] == Tileset.FLOOR) {
+                                if (this.world.get(newX, newY) == Tileset.FLOOR) {
                                     isWall = true;
                                 }
                             }
                         }
                     }
                     if (isWall) {
-                        this.world[x][y] = Tileset.WALL;
+                        this.world.set(x, y, Tileset.WALL);
                     }
                 }
             }
@@ -175,34 +295,425 @@ public class WorldGenerator {
 
     }
 
-    private void createHallway(Position a, Position b) {
+    private void createHallway(int ax, int ay, int bx, int by) {
+        this.hallways.add(hallway(ax, ay, bx, by));
+    }
+
+    private static Hallway hallway(int ax, int ay, int bx, int by) {
         Hallway hallway = new Hallway();
 
-        int xStart = Math.min(a.getX(), b.getX());
-        int xEnd = Math.max(a.getX(), b.getX());
+        int xStart = Math.min(ax, bx);
+        int xEnd = Math.max(ax, bx);
         for (int x = xStart; x <= xEnd; x++) {
-            hallway.add(new Position(x, a.getY()));
+            hallway.add(x, ay);
         }
 
-        int yStart = Math.min(a.getY(), b.getY());
-        int yEnd = Math.max(a.getY(), b.getY());
+        int yStart = Math.min(ay, by);
+        int yEnd = Math.max(ay, by);
         for (int y = yStart; y <= yEnd; y++) {
-            hallway.add(new Position(b.getX(), y));
+            hallway.add(bx, y);
+        }
+        return hallway;
+    }
+
+    /**
+     * The hallways of a minimum spanning tree over the room centres by Manhattan distance, plus
+     * the loops * (rooms - 1) shortest edges left out of it. The tree is taken over the edges
+     * to each room's K_NEAREST nearest rooms, found through a grid of buckets, so it costs
+     * O(n log n). If those edges leave the rooms in pieces, the pieces are chained in centre x
+     * order.
+     */
+    private static List<Hallway> treeHallways(Room[] rooms, double loops) {
+        int n = rooms.length;
+        List<Hallway> joins = new ArrayList<>();
+        if (n < 2) {
+            return joins;
+        }
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            xs[i] = rooms[i].centerX();
+            ys[i] = rooms[i].centerY();
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int cellSize = Math.max(1, (int) Math.sqrt((double) (maxX - minX + 1) * (maxY - minY + 1) / n));
+        int bucketsWide = (maxX - minX) / cellSize + 1;
+        int bucketsHigh = (maxY - minY) / cellSize + 1;
+        int[] bucketHead = new int[bucketsWide * bucketsHigh];
+        int[] next = new int[n];
+        Arrays.fill(bucketHead, -1);
+        for (int i = 0; i < n; i++) {
+            int bucket = (xs[i] - minX) / cellSize * bucketsHigh + (ys[i] - minY) / cellSize;
+            next[i] = bucketHead[bucket];
+            bucketHead[bucket] = i;
+        }
+
+        int k = Math.min(K_NEAREST, n - 1);
+        int[] edgeFrom = new int[n * k];
+        int[] edgeTo = new int[n * k];
+        long[] order = new long[n * k];
+        int edges = 0;
+        int[] nearest = new int[k];
+        int[] nearestDistance = new int[k];
+        for (int i = 0; i < n; i++) {
+            int bx = (xs[i] - minX) / cellSize;
+            int by = (ys[i] - minY) / cellSize;
+            int found = 0;
+            for (int ring = 0; ring <= Math.max(bucketsWide, bucketsHigh); ring++) {
+                if (found == k && nearestDistance[k - 1] <= (ring - 1) * cellSize) {
+                    break;
+                }
+                for (int x = bx - ring; x <= bx + ring; x++) {
+                    int step = x == bx - ring || x == bx + ring ? 1 : Math.max(1, 2 * ring);
+                    for (int y = by - ring; y <= by + ring; y += step) {
+                        if (x < 0 || x >= bucketsWide || y < 0 || y >= bucketsHigh) {
+                            continue;
+                        }
+                        for (int j = bucketHead[x * bucketsHigh + y]; j != -1; j = next[j]) {
+                            int distance = Math.abs(xs[i] - xs[j]) + Math.abs(ys[i] - ys[j]);
+                            if (j == i || found == k && distance >= nearestDistance[k - 1]) {
+                                continue;
+                            }
+                            int at = found < k ? found++ : k - 1;
+                            while (at > 0 && nearestDistance[at - 1] > distance) {
+                                nearest[at] = nearest[at - 1];
+                                nearestDistance[at] = nearestDistance[at - 1];
+                                at--;
+                            }
+                            nearest[at] = j;
+                            nearestDistance[at] = distance;
+                        }
+                    }
+                }
+            }
+            for (int t = 0; t < found; t++) {
+                edgeFrom[edges] = i;
+                edgeTo[edges] = nearest[t];
+                order[edges] = (long) nearestDistance[t] << 32 | edges;
+                edges++;
+            }
+        }
+        Arrays.sort(order, 0, edges);
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        boolean[] inTree = new boolean[edges];
+        int treeEdges = 0;
+        for (int e = 0; e < edges && treeEdges < n - 1; e++) {
+            int edge = (int) order[e];
+            if (union(parent, edgeFrom[edge], edgeTo[edge])) {
+                inTree[edge] = true;
+                treeEdges++;
+                joins.add(join(rooms[edgeFrom[edge]], rooms[edgeTo[edge]]));
+            }
+        }
+
+        if (treeEdges < n - 1) {
+            long[] byX = new long[n];
+            for (int i = 0; i < n; i++) {
+                byX[i] = (long) xs[i] << 32 | i;
+            }
+            Arrays.sort(byX);
+            for (int t = 1; t < n; t++) {
+                int a = (int) byX[t - 1];
+                int b = (int) byX[t];
+                if (union(parent, a, b)) {
+                    joins.add(join(rooms[a], rooms[b]));
+                }
+            }
         }
 
-        this.hallways.add(hallway);
+        int extra = (int) (loops * (n - 1));
+        if (extra > 0) {
+            Set<Long> joined = new HashSet<>();
+            for (int edge = 0; edge < edges; edge++) {
+                if (inTree[edge]) {
+                    joined.add(pair(edgeFrom[edge], edgeTo[edge]));
+                }
+            }
+            for (int e = 0; e < edges && extra > 0; e++) {
+                int edge = (int) order[e];
+                if (!inTree[edge] && joined.add(pair(edgeFrom[edge], edgeTo[edge]))) {
+                    joins.add(join(rooms[edgeFrom[edge]], rooms[edgeTo[edge]]));
+                    extra--;
+                }
+            }
+        }
+        return joins;
     }
 
-    public TETile[][] getWorld() {
-        return this.world;
+    /** Joins the sets holding a and b, returning false if they were already one set. */
+    private static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return false;
+        }
+        parent[rootA] = rootB;
+        return true;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static long pair(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    private static Hallway join(Room a, Room b) {
+        return hallway(a.centerX(), a.centerY(), b.centerX(), b.centerY());
+    }
+
+    /**
+     * Generates the map region by region. Each region places and chains its own rooms from
+     * the stream (seed, ROOM_STAGE, region index) and draws them, all in parallel; the regions
+     * are then linked row by row and walled, again in parallel.
+     */
+    private void generateSplit() {
+        initializeTiles();
+        int regionsWide = Math.max(1, this.width / REGION_WIDTH);
+        int regionsHigh = Math.max(1, this.height / REGION_HEIGHT);
+        Region[] regions = new Region[regionsWide * regionsHigh];
+        for (int rx = 0; rx < regionsWide; rx++) {
+            for (int ry = 0; ry < regionsHigh; ry++) {
+                int x1 = rx == regionsWide - 1 ? this.width : (rx + 1) * REGION_WIDTH;
+                int y1 = ry == regionsHigh - 1 ? this.height : (ry + 1) * REGION_HEIGHT;
+                regions[ry * regionsWide + rx] = new Region(rx * REGION_WIDTH, ry * REGION_HEIGHT, x1, y1);
+            }
+        }
+
+        Room[][] regionRooms = new Room[regions.length][];
+        Hallway[][] regionHallways = new Hallway[regions.length][];
+        forEachRegion(regions.length, r -> {
+            Room[] placed = placeRooms(regions[r], RandomUtils.stream(this.seed, ROOM_STAGE, r));
+            Arrays.sort(placed, Comparator.comparingInt(Room::centerX));
+            Hallway[] joins;
+            if (this.connection == RoomConnection.MST) {
+                joins = treeHallways(placed, this.loops).toArray(new Hallway[0]);
+            } else {
+                joins = new Hallway[Math.max(0, placed.length - 1)];
+                for (int i = 0; i < joins.length; i++) {
+                    joins[i] = hallway(placed[i].centerX(), placed[i].centerY(),
+                            placed[i + 1].centerX(), placed[i + 1].centerY());
+                }
+            }
+            regionRooms[r] = placed;
+            regionHallways[r] = joins;
+            for (Room room : placed) {
+                drawRoom(room);
+            }
+            for (Hallway hallway : joins) {
+                drawHallway(hallway);
+            }
+        });
+
+        for (int r = 0; r < regions.length; r++) {
+            this.rooms.addAll(Arrays.asList(regionRooms[r]));
+            this.hallways.addAll(Arrays.asList(regionHallways[r]));
+        }
+        int linksFrom = this.hallways.size();
+        linkRegions(regionRooms, regionsWide, regionsHigh);
+        for (int i = linksFrom; i < this.hallways.size(); i++) {
+            drawHallway(this.hallways.get(i));
+        }
+
+        forEachRegion(regions.length, r -> addWalls(regions[r].x0(), regions[r].y0(), regions[r].x1(),
+                regions[r].y1()));
+    }
+
+    /** Places rooms inside region as generateRooms does for the whole map. */
+    private Room[] placeRooms(Region region, Random stream) {
+        int perRegion = RandomUtils.uniform(stream, this.minRooms, this.maxRooms);
+        int numRooms = (int) Math.max(1, perRegion * region.area() / (REGION_WIDTH * REGION_HEIGHT));
+        if (this.placement == RoomPlacement.BSP) {
+            Region inside = new Region(region.x0(), region.y0(), region.x1() - 1, region.y1() - 1);
+            return partitionRooms(inside, numRooms, stream).toArray(new Room[0]);
+        }
+        List<Room> placed = new ArrayList<>();
+        RoomIndex index = new RoomIndex(region.x0(), region.y0(), region.x1() - region.x0(),
+                region.y1() - region.y0());
+        int attempts = 0;
+
+        while (placed.size() < numRooms && attempts < numRooms * MAX_ROOM_WIDTH) {
+            attempts = attempts + 1;
+
+            int w = RandomUtils.uniform(stream, MIN_ROOM_WIDTH, MAX_ROOM_WIDTH);
+            int h = RandomUtils.uniform(stream, MIN_ROOM_HEIGHT, MAX_ROOM_HEIGHT);
+
+            int x = RandomUtils.uniform(stream, region.x0() + 1, region.x1() - w - 1);
+            int y = RandomUtils.uniform(stream, region.y0() + 1, region.y1() - h - 1);
+
+            Room possibleRoom = new Room(x, y, w, h);
+            if (!index.intersectsAny(possibleRoom)) {
+                placed.add(possibleRoom);
+                index.add(possibleRoom);
+            }
+        }
+        return placed.toArray(new Room[0]);
     }
 
-    private boolean overlaps(Room a) {
-        for (Room b: rooms) {
-            if (a.intersects(b)) {
-                return true;
+    /**
+     * Splits area into numRooms parts, or fewer if the parts get too small to split, always
+     * cutting the largest part next, and puts one room in each part, clear of its left and
+     * bottom edges so neighbouring rooms always have a wall between them. Keeping the parts in
+     * a priority queue makes this O(n log n) in the number of rooms.
+     */
+    private static List<Room> partitionRooms(Region area, int numRooms, Random random) {
+        List<Room> placed = new ArrayList<>(numRooms);
+        if (area.x1() - area.x0() < MIN_PART_WIDTH || area.y1() - area.y0() < MIN_PART_HEIGHT) {
+            return placed;
+        }
+        PriorityQueue<Region> open = new PriorityQueue<>(Comparator.comparingLong(Region::area).reversed());
+        List<Region> parts = new ArrayList<>(numRooms);
+        open.add(area);
+        while (!open.isEmpty() && open.size() + parts.size() < numRooms) {
+            Region part = open.poll();
+            Region[] halves = split(part, random);
+            if (halves == null) {
+                parts.add(part);
+            } else {
+                open.add(halves[0]);
+                open.add(halves[1]);
             }
         }
-        return false;
+        parts.addAll(open);
+
+        for (Region part : parts) {
+            int w = RandomUtils.uniform(random, MIN_ROOM_WIDTH, Math.min(MAX_ROOM_WIDTH, part.x1() - part.x0()));
+            int h = RandomUtils.uniform(random, MIN_ROOM_HEIGHT, Math.min(MAX_ROOM_HEIGHT, part.y1() - part.y0()));
+
+            int x = RandomUtils.uniform(random, part.x0() + 1, part.x1() - w + 1);
+            int y = RandomUtils.uniform(random, part.y0() + 1, part.y1() - h + 1);
+
+            placed.add(new Room(x, y, w, h));
+        }
+        return placed;
+    }
+
+    /**
+     * Cuts part in two across its longer side, somewhere in its middle quarter, or returns null
+     * if neither side is long enough to leave room for a room in both halves.
+     */
+    private static Region[] split(Region part, Random random) {
+        int w = part.x1() - part.x0();
+        int h = part.y1() - part.y0();
+        boolean cutsX = w >= 2 * MIN_PART_WIDTH;
+        boolean cutsY = h >= 2 * MIN_PART_HEIGHT;
+        if (cutsX && (!cutsY || w >= h)) {
+            int margin = Math.max(MIN_PART_WIDTH, w * 3 / 8);
+            int cut = RandomUtils.uniform(random, part.x0() + margin, part.x1() - margin + 1);
+            return new Region[] {new Region(part.x0(), part.y0(), cut, part.y1()),
+                new Region(cut, part.y0(), part.x1(), part.y1())};
+        }
+        if (cutsY) {
+            int margin = Math.max(MIN_PART_HEIGHT, h * 3 / 8);
+            int cut = RandomUtils.uniform(random, part.y0() + margin, part.y1() - margin + 1);
+            return new Region[] {new Region(part.x0(), part.y0(), part.x1(), cut),
+                new Region(part.x0(), cut, part.x1(), part.y1())};
+        }
+        return null;
+    }
+
+    /**
+     * Joins each region to the next one in its row with a hallway from its rightmost room to
+     * the other's leftmost, and each row to the next through their first regions with rooms.
+     */
+    private void linkRegions(Room[][] regionRooms, int regionsWide, int regionsHigh) {
+        Room previousRowFirst = null;
+        for (int ry = 0; ry < regionsHigh; ry++) {
+            Room rowFirst = null;
+            Room[] previous = null;
+            for (int rx = 0; rx < regionsWide; rx++) {
+                Room[] current = regionRooms[ry * regionsWide + rx];
+                if (current.length == 0) {
+                    continue;
+                }
+                if (previous != null) {
+                    Room a = previous[previous.length - 1];
+                    createHallway(a.centerX(), a.centerY(), current[0].centerX(), current[0].centerY());
+                } else {
+                    rowFirst = current[0];
+                }
+                previous = current;
+            }
+            if (rowFirst == null) {
+                continue;
+            }
+            if (previousRowFirst != null) {
+                createHallway(previousRowFirst.centerX(), previousRowFirst.centerY(), rowFirst.centerX(),
+                        rowFirst.centerY());
+            }
+            previousRowFirst = rowFirst;
+        }
+    }
+
+    private void forEachRegion(int regions, IntConsumer action) {
+        if (this.pool == null) {
+            for (int r = 0; r < regions; r++) {
+                action.accept(r);
+            }
+        } else {
+            this.pool.invoke(new RegionTask(0, regions, action));
+        }
+    }
+
+    private static class RegionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        RegionTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int r = from; r < to; r++) {
+                    action.accept(r);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RegionTask(from, mid, action), new RegionTask(mid, to, action));
+        }
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public TileGrid getWorld() {
+        return this.world;
+    }
+
+    public Set<Room> getRooms() {
+        return this.rooms;
+    }
+
+    public List<Hallway> getHallways() {
+        return this.hallways;
+    }
+
+    public RoomGraph roomGraph() {
+        return RoomGraph.build(new NavGrid(this.world), this.rooms);
     }
 }
@@ -0,0 +1,107 @@
+package demo;
+
+import core.GridSearch;
+import core.Hug;
+import core.NavGrid;
+import core.PathMode;
+import core.World;
+import core.WorldGenerator;
+import tileengine.ArrayTileGrid;
+import tileengine.TileGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a warmed-up BFS allocates nothing per search, and that neither does the game
+ * loop's per-frame work in any path mode: the player walking back and forth, the Hugs moving,
+ * and the frame drawn into a reused grid with the path overlay and the actors, with the lamp
+ * on and off. None of it may create a Position or a grid.
+ */
+final class AllocationCheck {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final long SEED = 2873123;
+    private static final int WARMUP = 20000;
+    private static final int SEARCHES = 5000;
+    private static final int LOOP_HUGS = 3;
+    private static final int LOOP_FRAMES = 300;
+    private static final int FRAMES_PER_HUG_MOVE = 30;
+    private static final int[] PLAYER_MOVES = {1, 0, -1, 0, 0, 1, 0, -1};
+    private static final int LAMP_RADIUS = 6;
+
+    static String run() {
+        TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, SEED).generateWorld();
+        NavGrid nav = new NavGrid(tiles);
+        GridSearch search = new GridSearch(nav);
+        int[] cells = PathfindingBenchmark.floorCells(tiles, nav);
+        runSearches(search, cells, WARMUP);
+
+        long overhead = -PathfindingBenchmark.allocatedBytes() + PathfindingBenchmark.allocatedBytes();
+        long bytesBefore = PathfindingBenchmark.allocatedBytes();
+        runSearches(search, cells, SEARCHES);
+        long bytes = PathfindingBenchmark.allocatedBytes() - bytesBefore - overhead;
+        if (bytes != 0) {
+            SelfCheck.fail(SEARCHES + " BFS searches allocated " + bytes + " bytes");
+        }
+
+        List<String> allocating = new ArrayList<>();
+        for (PathMode mode : PathMode.values()) {
+            gameLoop(loopWorld(mode), WARMUP / 4);
+
+            World world = loopWorld(mode);
+            TileGrid frame = new ArrayTileGrid(WIDTH, HEIGHT);
+            gameLoop(world, frame, LOOP_FRAMES);
+            bytesBefore = PathfindingBenchmark.allocatedBytes();
+            gameLoop(world, frame, LOOP_FRAMES);
+            bytes = PathfindingBenchmark.allocatedBytes() - bytesBefore - overhead;
+            if (bytes != 0) {
+                allocating.add(mode + " " + bytes + " bytes");
+            }
+        }
+        if (!allocating.isEmpty()) {
+            SelfCheck.fail("the game loop allocated over " + LOOP_FRAMES + " frames: " + allocating);
+        }
+        return SEARCHES + " searches and " + LOOP_FRAMES + " frames in each of " + PathMode.values().length
+                + " path modes allocated nothing";
+    }
+
+    private static World loopWorld(PathMode mode) {
+        WorldGenerator generator = new WorldGenerator(WIDTH, HEIGHT, SEED);
+        World world = new World(generator.generateWorld(), SEED);
+        world.setRoomGraph(generator.roomGraph());
+        world.setPathMode(mode);
+        for (int i = 0; i < LOOP_HUGS; i++) {
+            world.addHug(new Hug(world.randomFloorTile(true)));
+        }
+        return world;
+    }
+
+    private static void gameLoop(World world, int frames) {
+        gameLoop(world, new ArrayTileGrid(WIDTH, HEIGHT), frames);
+    }
+
+    /**
+     * Runs frames as Main.gameLoop does, with the player stepping back and forth and the lamp
+     * switched on and off, drawing each frame into frame.
+     */
+    private static void gameLoop(World world, TileGrid frame, int frames) {
+        for (int i = 0; i < frames; i++) {
+            int move = i % (PLAYER_MOVES.length / 2) * 2;
+            world.movePlayer(PLAYER_MOVES[move], PLAYER_MOVES[move + 1]);
+            if (i % FRAMES_PER_HUG_MOVE == 0) {
+                world.moveHugs();
+            }
+            world.drawFrame(frame, i % 2 == 0 ? LAMP_RADIUS : -1, true);
+        }
+    }
+
+    private static void runSearches(GridSearch search, int[] cells, int count) {
+        for (int i = 0; i < count; i++) {
+            int from = cells[(int) ((i * 7919L) % cells.length)];
+            int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+            search.findPath(from, to);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package demo;
+
+import core.BatchWorldGenerator;
+import core.Room;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates worlds for a range of seeds with BatchWorldGenerator at growing thread counts and
+ * prints worlds per second and the speed-up over one thread. The checksum adds up a digest of
+ * every world, so it must be the same at every thread count.
+ *
+ * Usage: {@code java demo.BatchGenerationBenchmark [seeds] [width] [height]}.
+ */
+public class BatchGenerationBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final long FIRST_SEED = 1;
+    private static final long DEFAULT_SEEDS = 5000;
+    private static final int DEFAULT_WIDTH = 80;
+    private static final int DEFAULT_HEIGHT = 40;
+    private static final int SAMPLES = 64;
+
+    private static long checksum;
+
+    public static void main(String[] args) {
+        long seeds = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SEEDS;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIDTH;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HEIGHT;
+
+        System.out.printf("%d worlds of %dx%d, %d cores available%n", seeds, width, height,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %-13s %-9s %s%n", "threads", "worlds/s", "speed-up", "checksum");
+
+        run(1, seeds, width, height);
+        double single = 0;
+        for (int threads : THREAD_COUNTS) {
+            BatchWorldGenerator.Report report = run(threads, seeds, width, height);
+            if (threads == 1) {
+                single = report.worldsPerSecond();
+            }
+            System.out.printf("%-9d %-13.1f %-9.2f %016x%n", threads, report.worldsPerSecond(),
+                    report.worldsPerSecond() / single, checksum);
+        }
+    }
+
+    private static BatchWorldGenerator.Report run(int threads, long seeds, int width, int height) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            checksum = 0;
+            return new BatchWorldGenerator(pool).generate(FIRST_SEED, seeds, width, height,
+                    generator -> checksum += digest(generator));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Mixes the seed, every room and a spread of tiles, cheaply enough not to slow the batch. */
+    private static long digest(WorldGenerator generator) {
+        long hash = generator.getSeed();
+        for (Room room : generator.getRooms()) {
+            hash = hash * 31 + room.getX();
+            hash = hash * 31 + room.getY();
+            hash = hash * 31 + room.getWidth() * 100 + room.getHeight();
+        }
+        TileGrid world = generator.getWorld();
+        long step = Math.max(1, world.size() / SAMPLES);
+        for (long i = 0; i < world.size(); i += step) {
+            hash = hash * 31 + world.id((int) (i / world.height()), (int) (i % world.height()));
+        }
+        return hash * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,56 @@
+package demo;
+
+import core.ActorStore;
+import core.PathMode;
+import core.Position;
+import core.World;
+import tileengine.ArrayTileGrid;
+import tileengine.Tileset;
+
+/**
+ * Puts a BOUNDED Hug at the end of a dead end three tiles below the player, facing away, where
+ * the only way round is a 37-step loop and nothing within a radius of 4 looks closer than
+ * where it starts. Fails if the Hug is ever LOST or takes more than the loop to reach the
+ * player.
+ */
+final class BoundedSearchCheck {
+
+    private static final long SEED = 2873123;
+    private static final int RADIUS = 4;
+    private static final int LOOP_STEPS = 37;
+
+    static String run() {
+        ArrayTileGrid tiles = new ArrayTileGrid(30, 20);
+        tiles.fill(Tileset.WALL);
+        for (int y = 5; y <= 12; y++) {
+            tiles.set(10, y, Tileset.FLOOR);
+        }
+        for (int x = 10; x <= 20; x++) {
+            tiles.set(x, 5, Tileset.FLOOR);
+            tiles.set(x, 15, Tileset.FLOOR);
+        }
+        for (int y = 5; y <= 15; y++) {
+            tiles.set(20, y, Tileset.FLOOR);
+        }
+        World world = new World(tiles, SEED);
+        world.forcePlayerPosition(new Position(10, 15));
+        world.setSearchRadius(RADIUS);
+        world.setPathMode(PathMode.BOUNDED);
+        world.addHug(10, 12, 1);
+
+        ActorStore actors = world.getActors();
+        int ticks = 0;
+        while (!world.moveHugs()) {
+            ticks++;
+            for (int slot = 0; slot < actors.size(); slot++) {
+                if (actors.kind(slot) == ActorStore.HUG && actors.state(slot) == ActorStore.LOST) {
+                    SelfCheck.fail("bounded Hug went LOST in a dead end on tick " + ticks);
+                }
+            }
+            if (ticks > LOOP_STEPS) {
+                SelfCheck.fail("bounded Hug did not leave the dead end in " + ticks + " ticks");
+            }
+        }
+        return "bounded Hug left a dead end and caught the player after " + ticks + " ticks";
+    }
+}
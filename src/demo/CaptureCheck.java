@@ -0,0 +1,47 @@
+package demo;
+
+import core.ActorStore;
+import core.PathMode;
+import core.Position;
+import core.World;
+import tileengine.ArrayTileGrid;
+import tileengine.Tileset;
+
+/**
+ * Puts two Hugs in a hallway with the player, the first one next to it and the second a few
+ * tiles behind, in every path mode. Fails if the tick where the first Hug catches the player
+ * is not reported as a catch, or if the second Hug does not take its step that tick.
+ */
+final class CaptureCheck {
+
+    private static final long SEED = 2873123;
+    private static final int PLAYER_X = 10;
+    private static final int ROW = 5;
+    private static final int FAR_X = 15;
+
+    static String run() {
+        for (PathMode mode : PathMode.values()) {
+            ArrayTileGrid tiles = new ArrayTileGrid(20, 11);
+            tiles.fill(Tileset.WALL);
+            for (int x = 1; x < tiles.width() - 1; x++) {
+                tiles.set(x, ROW, Tileset.FLOOR);
+            }
+            World world = new World(tiles, SEED);
+            world.forcePlayerPosition(new Position(PLAYER_X, ROW));
+            world.setPathMode(mode);
+            world.addHug(PLAYER_X - 1, ROW, 1);
+            int far = world.addHug(FAR_X, ROW, 1);
+
+            if (!world.moveHugs()) {
+                SelfCheck.fail(mode + ": a Hug next to the player did not catch it");
+            }
+            ActorStore actors = world.getActors();
+            int slot = actors.slot(far);
+            if (actors.x(slot) != FAR_X - 1 || actors.state(slot) != ActorStore.CHASING) {
+                SelfCheck.fail(mode + ": the second Hug stayed at (" + actors.x(slot) + ", " + actors.y(slot)
+                        + ") on the tick the first one caught the player");
+            }
+        }
+        return "in all " + PathMode.values().length + " path modes the second Hug stepped on the tick of a catch";
+    }
+}
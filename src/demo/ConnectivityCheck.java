@@ -0,0 +1,68 @@
+package demo;
+
+import core.ConnectivityIndex;
+import core.NavGrid;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Opens and closes random cells, telling a ConnectivityIndex about each change, and fails if
+ * after any tick its components differ from those of an index built from scratch: every cell
+ * must be blocked in both or in matching components of the same size.
+ */
+final class ConnectivityCheck {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final int SEEDS = 3;
+    private static final int TICKS = 4000;
+    private static final int MAX_TOGGLES = 4;
+
+    static String run() {
+        long ticks = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, seed).generateWorld();
+            NavGrid nav = new NavGrid(tiles);
+            ConnectivityIndex updated = new ConnectivityIndex(nav);
+            int[] freshOf = new int[nav.size()];
+            int[] updatedOf = new int[nav.size()];
+            Random random = new Random(seed);
+
+            for (int t = 0; t < TICKS; t++) {
+                int toggles = 1 + random.nextInt(MAX_TOGGLES);
+                for (int i = 0; i < toggles; i++) {
+                    int x = 1 + random.nextInt(WIDTH - 2);
+                    int y = 1 + random.nextInt(HEIGHT - 2);
+                    tiles.set(x, y, nav.passable(x, y) ? Tileset.WALL : Tileset.FLOOR);
+                    updated.cellChanged(nav.cell(x, y));
+                }
+                ConnectivityIndex fresh = new ConnectivityIndex(nav);
+                ticks++;
+                Arrays.fill(freshOf, -1);
+                Arrays.fill(updatedOf, -1);
+                for (int cell = 0; cell < nav.size(); cell++) {
+                    int a = updated.component(cell);
+                    int b = fresh.component(cell);
+                    boolean same = (a < 0) == (b < 0);
+                    if (same && a >= 0) {
+                        if (freshOf[a] < 0 && updatedOf[b] < 0) {
+                            freshOf[a] = b;
+                            updatedOf[b] = a;
+                        }
+                        same = freshOf[a] == b && updatedOf[b] == a
+                                && updated.componentSize(cell) == fresh.componentSize(cell);
+                    }
+                    if (!same) {
+                        SelfCheck.fail("connectivity index differs from a rebuild on seed " + seed
+                                + " tick " + t + " at cell " + cell);
+                    }
+                }
+            }
+        }
+        return ticks + " ticks of updates matched a rebuild";
+    }
+}
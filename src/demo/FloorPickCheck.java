@@ -0,0 +1,72 @@
+package demo;
+
+import core.World;
+import tileengine.ArrayTileGrid;
+import tileengine.Tileset;
+
+/**
+ * Checks World.randomFloorCell(true) on a map that is almost all wall, with one small room
+ * for the player and a second room it cannot reach. Fails if a reachable pick lands outside
+ * the player's room, under the player or a Hug, on a tile walled off, or never in the second
+ * room once a hallway joins it.
+ */
+final class FloorPickCheck {
+
+    private static final long SEED = 2873123;
+    private static final int SIZE = 2000;
+    private static final int ROOM = 7;
+    private static final int PICKS = 100000;
+
+    static String run() {
+        ArrayTileGrid tiles = new ArrayTileGrid(SIZE, SIZE);
+        tiles.fill(Tileset.WALL);
+        for (int x = 1; x < ROOM; x++) {
+            for (int y = 1; y < ROOM; y++) {
+                tiles.set(x, y, Tileset.FLOOR);
+                tiles.set(SIZE - 1 - x, SIZE - 1 - y, Tileset.FLOOR);
+            }
+        }
+        World world = new World(tiles, SEED);
+
+        checkPicks(world, 1, 1, false);
+        world.addHug(5, 5, 1);
+        checkPicks(world, 5, 5, false);
+        world.setTile(3, 3, Tileset.WALL);
+        checkPicks(world, 3, 3, false);
+        world.setTile(3, 3, Tileset.FLOOR);
+        checkPicks(world, 3, 3, true);
+        int far = SIZE - 4;
+        for (int x = ROOM; x <= far; x++) {
+            world.setTile(x, 3, Tileset.FLOOR);
+        }
+        for (int y = 4; y < SIZE - ROOM; y++) {
+            world.setTile(far, y, Tileset.FLOOR);
+        }
+        checkPicks(world, far, far, true);
+        return 6 * PICKS + " reachable picks landed where they should";
+    }
+
+    /**
+     * Makes PICKS reachable picks and fails if one lands outside the player's room while x, y
+     * is inside it, or if x, y is picked when not expected or never picked when it is.
+     */
+    private static void checkPicks(World world, int x, int y, boolean expected) {
+        boolean joined = x >= ROOM;
+        boolean seen = false;
+        for (int i = 0; i < PICKS; i++) {
+            int cell = world.randomFloorCell(true);
+            if (cell == World.NO_CELL) {
+                SelfCheck.fail("no reachable floor tile was found");
+            }
+            int px = world.cellX(cell);
+            int py = world.cellY(cell);
+            if (!joined && (px >= ROOM || py >= ROOM)) {
+                SelfCheck.fail("reachable floor pick (" + px + ", " + py + ") is outside the player's room");
+            }
+            seen |= px == x && py == y;
+        }
+        if (seen != expected) {
+            SelfCheck.fail("reachable floor picks " + (expected ? "never" : "did") + " land on (" + x + ", " + y + ")");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package demo;
+
+import core.FlowField;
+import core.NavGrid;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+
+/**
+ * Opens and closes random cells every tick, repairing a flow field after each tick and
+ * building a second one from scratch, and fails if any cell's distance differs. The goal
+ * stays put for GOAL_MOVE_TICKS at a time so most ticks go through the incremental repair.
+ */
+final class FlowFieldCheck {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final int SEEDS = 3;
+    private static final int TICKS = 4000;
+    private static final int MAX_TOGGLES = 4;
+    private static final int GOAL_MOVE_TICKS = 200;
+
+    static String run() {
+        long ticks = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, seed).generateWorld();
+            NavGrid nav = new NavGrid(tiles);
+            FlowField repaired = new FlowField(nav);
+            FlowField rebuilt = new FlowField(nav);
+            Random random = new Random(seed);
+            int goal = PathfindingBenchmark.floorCells(tiles, nav)[0];
+            repaired.update(goal);
+
+            for (int t = 0; t < TICKS; t++) {
+                if (t % GOAL_MOVE_TICKS == GOAL_MOVE_TICKS - 1) {
+                    goal = passableCell(nav, random);
+                }
+                int toggles = 1 + random.nextInt(MAX_TOGGLES);
+                for (int i = 0; i < toggles; i++) {
+                    int x = 1 + random.nextInt(WIDTH - 2);
+                    int y = 1 + random.nextInt(HEIGHT - 2);
+                    if (nav.cell(x, y) != goal) {
+                        tiles.set(x, y, nav.passable(x, y) ? Tileset.WALL : Tileset.FLOOR);
+                        repaired.cellChanged(nav.cell(x, y));
+                    }
+                }
+                repaired.update(goal);
+                rebuilt.build(goal);
+                ticks++;
+                for (int cell = 0; cell < nav.size(); cell++) {
+                    if (repaired.distance(cell) != rebuilt.distance(cell)) {
+                        SelfCheck.fail("repaired flow field differs from a rebuild on seed " + seed
+                                + " tick " + t + " at cell " + cell);
+                    }
+                }
+            }
+        }
+        return ticks + " ticks of repairs matched a rebuild";
+    }
+
+    static int passableCell(NavGrid nav, Random random) {
+        while (true) {
+            int x = random.nextInt(nav.width());
+            int y = random.nextInt(nav.height());
+            if (nav.passable(x, y)) {
+                return nav.cell(x, y);
+            }
+        }
+    }
+}
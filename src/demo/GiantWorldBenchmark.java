@@ -0,0 +1,70 @@
+package demo;
+
+import core.GenerationMode;
+import core.WorldGenerator;
+import tileengine.MappedTileGrid;
+import tileengine.Tileset;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Generates a world straight into a memory-mapped file, then maps it again and scans it.
+ * The first run generates; later runs with the same file only reopen it, which shows that
+ * the world persisted and that reopening costs nothing however large the world is.
+ *
+ * Usage: {@code java demo.GiantWorldBenchmark [file] [width] [height] [LEGACY|SPLIT]}. Sizes
+ * past the heap, such as 50000 50000 for 2.5 billion tiles, work as long as the disk has room.
+ * SPLIT fills the whole map with rooms, generating its regions on every core.
+ */
+public class GiantWorldBenchmark {
+
+    private static final String DEFAULT_FILE = "giant-world.tiles";
+    private static final int DEFAULT_SIZE = 16384;
+    private static final long SEED = 2873123;
+
+    public static void main(String[] args) {
+        Path file = Path.of(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SIZE;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SIZE;
+        GenerationMode mode = args.length > 3 ? GenerationMode.valueOf(args[3]) : GenerationMode.LEGACY;
+
+        if (!file.toFile().exists()) {
+            long start = System.nanoTime();
+            try (MappedTileGrid grid = MappedTileGrid.create(file, width, height)) {
+                new WorldGenerator(grid, SEED, mode).generateWorld();
+            }
+            System.out.printf("generated %dx%d (%d tiles, %s) in %d ms%n", width, height, (long) width * height, mode,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        long start = System.nanoTime();
+        try (MappedTileGrid grid = MappedTileGrid.open(file)) {
+            long opened = System.nanoTime() - start;
+            System.out.printf("reopened %s (%d bytes) in %d us%n", file, new File(file.toString()).length(),
+                    opened / 1000);
+
+            start = System.nanoTime();
+            long floors = 0;
+            long walls = 0;
+            int floor = Tileset.FLOOR.id();
+            int wall = Tileset.WALL.id();
+            for (int x = 0; x < grid.width(); x++) {
+                for (int y = 0; y < grid.height(); y++) {
+                    int id = grid.id(x, y);
+                    if (id == floor) {
+                        floors++;
+                    } else if (id == wall) {
+                        walls++;
+                    }
+                }
+            }
+            long scan = System.nanoTime() - start;
+            System.out.printf("scanned %d tiles in %d ms (%.0f M tiles/s): %d floor, %d wall%n", grid.size(),
+                    scan / 1_000_000, grid.size() * 1e3 / scan, floors, walls);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("heap in use: %d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+}
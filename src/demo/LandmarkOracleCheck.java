@@ -0,0 +1,78 @@
+package demo;
+
+import core.LandmarkOracle;
+import core.NavGrid;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores a landmark oracle with toBytes and reads it back with fromBytes. Fails if the copy
+ * gives different lower bounds, or if fromBytes accepts bytes that were cut short, run on
+ * past the table, or carry a header whose landmark count or table length is negative, does
+ * not match the grid, or only matches it once multiplied out in int arithmetic.
+ */
+final class LandmarkOracleCheck {
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final long SEED = 2873123;
+    private static final int PAIRS = 1000;
+    private static final int COUNT_OFFSET = 20;
+    private static final int LENGTH_OFFSET = 24;
+    private static final int LANDMARKS_OFFSET = 28;
+
+    static String run() {
+        TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, SEED).generateWorld();
+        NavGrid nav = new NavGrid(tiles);
+        int[] cells = PathfindingBenchmark.floorCells(tiles, nav);
+        LandmarkOracle oracle = LandmarkOracle.build(nav, cells[0], LandmarkOracle.DEFAULT_LANDMARKS, null);
+        byte[] bytes = oracle.toBytes();
+
+        LandmarkOracle copy = LandmarkOracle.fromBytes(bytes, nav);
+        if (copy == null || copy.landmarkCount() != oracle.landmarkCount()) {
+            SelfCheck.fail("a stored oracle did not read back");
+        }
+        for (int i = 0; i < PAIRS; i++) {
+            int a = cells[(int) ((i * 7919L) % cells.length)];
+            int b = cells[(int) ((i * 104729L + 13) % cells.length)];
+            if (copy.lowerBound(a, b) != oracle.lowerBound(a, b)) {
+                SelfCheck.fail("a stored oracle gives a different bound from " + a + " to " + b);
+            }
+        }
+
+        int count = oracle.landmarkCount();
+        // On a grid whose size is a multiple of 4, 2^30 more landmarks leave both count * size
+        // and the byte count worked out from it unchanged in int arithmetic.
+        int wrappedCount = count + (1 << 30);
+        byte[][] bad = {
+                Arrays.copyOf(bytes, 10),
+                Arrays.copyOf(bytes, LANDMARKS_OFFSET),
+                Arrays.copyOf(bytes, bytes.length - 1),
+                Arrays.copyOf(bytes, bytes.length + 2),
+                withInt(bytes, COUNT_OFFSET, -1),
+                withInt(bytes, COUNT_OFFSET, count + 1),
+                withInt(bytes, COUNT_OFFSET, Integer.MAX_VALUE),
+                withInt(bytes, LENGTH_OFFSET, -1),
+                withInt(bytes, LENGTH_OFFSET, Integer.MAX_VALUE),
+                withInt(withInt(bytes, COUNT_OFFSET, Integer.MAX_VALUE), LENGTH_OFFSET, Integer.MAX_VALUE),
+                withInt(bytes, COUNT_OFFSET, wrappedCount),
+                withInt(bytes, LANDMARKS_OFFSET, nav.size()),
+        };
+        for (int i = 0; i < bad.length; i++) {
+            if (LandmarkOracle.fromBytes(bad[i], nav) != null) {
+                SelfCheck.fail("fromBytes accepted damaged bytes, case " + i);
+            }
+        }
+        return "an oracle of " + count + " landmarks read back, and " + bad.length + " damaged copies were refused";
+    }
+
+    /** A copy of bytes with the int at offset replaced by value. */
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).putInt(offset, value);
+        return copy;
+    }
+}
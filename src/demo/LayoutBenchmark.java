@@ -0,0 +1,135 @@
+package demo;
+
+import core.GridSearch;
+import core.NavGrid;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+import tileengine.TileLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the TileGrid memory layouts on the work that walks the map: world generation,
+ * which is dominated by the 3x3 wall pass, BFS between floor tiles, and a 3x3 neighbourhood
+ * scan of every tile. Each layout runs in its own JVM so that the JIT sees a single TileGrid
+ * subclass, as it does in the game; the checksum column shows every layout built the same map.
+ *
+ * Usage: {@code java demo.LayoutBenchmark [layout] [WxH ...]}. With no layout, every layout is
+ * run in turn.
+ */
+public class LayoutBenchmark {
+
+    private static final int[][] SIZES = {{256, 256}, {1024, 1024}, {4096, 4096}};
+    private static final long SEED = 2873123;
+    private static final int ROUNDS = 5;
+    private static final int PAIRS = 40;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0 || !isLayout(args[0])) {
+            System.out.printf("%-8s %-11s %-10s %-10s %-10s %s%n",
+                    "layout", "size", "gen ms", "bfs us", "scan ms", "checksum");
+            for (TileLayout layout : TileLayout.values()) {
+                fork(layout, args);
+            }
+            return;
+        }
+
+        TileLayout layout = TileLayout.valueOf(args[0]);
+        int[][] sizes = SIZES;
+        if (args.length > 1) {
+            sizes = new int[args.length - 1][];
+            for (int i = 1; i < args.length; i++) {
+                String[] parts = args[i].split("x");
+                sizes[i - 1] = new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+            }
+        }
+        for (int[] size : sizes) {
+            measure(layout, size[0], size[1]);
+        }
+    }
+
+    private static boolean isLayout(String arg) {
+        return Arrays.stream(TileLayout.values()).anyMatch(layout -> layout.name().equals(arg));
+    }
+
+    private static void fork(TileLayout layout, String[] sizes) throws IOException, InterruptedException {
+        String[] command = new String[sizes.length + 5];
+        command[0] = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = LayoutBenchmark.class.getName();
+        command[4] = layout.name();
+        System.arraycopy(sizes, 0, command, 5, sizes.length);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+        process.waitFor();
+    }
+
+    private static void measure(TileLayout layout, int width, int height) {
+        TileGrid tiles = layout.create(width, height);
+        long generation = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            new WorldGenerator(tiles, SEED).generateWorld();
+            generation = Math.min(generation, System.nanoTime() - start);
+        }
+
+        NavGrid nav = new NavGrid(tiles);
+        GridSearch search = new GridSearch(nav);
+        int[] floors = PathfindingBenchmark.floorCells(tiles, nav);
+        Random random = new Random(SEED);
+        int[] pairs = new int[PAIRS * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = floors[random.nextInt(floors.length)];
+        }
+        long bfs = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < pairs.length; i += 2) {
+                search.findPath(pairs[i], pairs[i + 1]);
+            }
+            bfs = Math.min(bfs, (System.nanoTime() - start) / PAIRS);
+        }
+
+        long scan = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum = neighbourhoodSum(tiles);
+            scan = Math.min(scan, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-8s %-11s %-10.1f %-10.1f %-10.1f %016x%n", layout, width + "x" + height,
+                generation / 1e6, bfs / 1e3, scan / 1e6, checksum);
+    }
+
+    /** Visits every tile's 3x3 neighbourhood the way the wall pass does and hashes the ids. */
+    private static long neighbourhoodSum(TileGrid tiles) {
+        long sum = 0;
+        for (int x = 0; x < tiles.width(); x++) {
+            for (int y = 0; y < tiles.height(); y++) {
+                int around = 0;
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (tiles.inBounds(x + dx, y + dy)) {
+                            around += tiles.id(x + dx, y + dy);
+                        }
+                    }
+                }
+                sum = sum * 31 + around;
+            }
+        }
+        return sum;
+    }
+}
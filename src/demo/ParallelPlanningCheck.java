@@ -0,0 +1,66 @@
+package demo;
+
+import core.ActorStore;
+import core.Hug;
+import core.PathMode;
+import core.World;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Moves a crowd of A* Hugs on the calling thread and on pools of several sizes, and fails if
+ * the final Hug positions depend on where the moves were planned.
+ */
+final class ParallelPlanningCheck {
+
+    private static final long SEED = 2873123;
+    private static final int SIZE = 250;
+    private static final int CROWD = 300;
+    private static final int TICKS = 20;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    static String run() {
+        long expected = crowdChecksum(null);
+        for (int threads : THREAD_COUNTS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long checksum = crowdChecksum(pool);
+            pool.shutdown();
+            if (checksum != expected) {
+                SelfCheck.fail("Hug moves differ with " + threads + " threads");
+            }
+        }
+        return CROWD + " Hugs moved the same on the calling thread and with up to "
+                + THREAD_COUNTS[THREAD_COUNTS.length - 1] + " threads";
+    }
+
+    /** Plays the crowd's chase with moves planned on pool and hashes where the Hugs end up. */
+    private static long crowdChecksum(ForkJoinPool pool) {
+        TileGrid tiles = new WorldGenerator(SIZE, SIZE, SEED).generateWorld();
+        World world = new World(tiles, SEED);
+        world.setPathMode(PathMode.A_STAR);
+        world.setAiPool(pool);
+        for (int i = 0; i < CROWD; i++) {
+            world.addHug(new Hug(world.randomFloorTile(true)));
+        }
+
+        Random random = new Random(SEED);
+        for (int t = 0; t < TICKS; t++) {
+            int dir = random.nextInt(4);
+            world.movePlayer(dir == 0 ? 1 : dir == 1 ? -1 : 0, dir == 2 ? 1 : dir == 3 ? -1 : 0);
+            world.moveHugs();
+        }
+
+        long checksum = 0;
+        ActorStore actors = world.getActors();
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG) {
+                checksum = checksum * 31 + actors.x(slot);
+                checksum = checksum * 31 + actors.y(slot);
+            }
+        }
+        return checksum;
+    }
+}
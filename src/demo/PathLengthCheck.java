@@ -0,0 +1,63 @@
+package demo;
+
+import core.AStar;
+import core.BidirectionalSearch;
+import core.GridSearch;
+import core.HierarchicalPathfinder;
+import core.JumpPointSearch;
+import core.LandmarkOracle;
+import core.NavGrid;
+import core.Pathfinder;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+
+/**
+ * Checks that every exact engine finds paths of the same length as BFS, which is the
+ * reference on these unweighted maps: A*, A* with landmarks that went through toBytes and
+ * fromBytes, JPS, bidirectional BFS, and the hierarchical pathfinder's distance.
+ */
+final class PathLengthCheck {
+
+    private static final int[][] SIZES = {{80, 40}, {160, 80}, {250, 250}};
+    private static final int SEEDS = 5;
+    private static final int PAIRS = 100;
+
+    static String run() {
+        String[] names = {"A*", "landmark A*", "JPS", "bidirectional"};
+        long searches = 0;
+        for (int[] size : SIZES) {
+            for (long seed = 1; seed <= SEEDS; seed++) {
+                WorldGenerator generator = new WorldGenerator(size[0], size[1], seed);
+                TileGrid tiles = generator.generateWorld();
+                NavGrid nav = new NavGrid(tiles);
+                int[] cells = PathfindingBenchmark.floorCells(tiles, nav);
+                byte[] landmarks = LandmarkOracle.build(nav, cells[0], LandmarkOracle.DEFAULT_LANDMARKS, null)
+                        .toBytes();
+                GridSearch bfs = new GridSearch(nav);
+                Pathfinder[] engines = {new AStar(nav), new AStar(nav, LandmarkOracle.fromBytes(landmarks, nav)),
+                        new JumpPointSearch(nav), new BidirectionalSearch(nav)};
+                HierarchicalPathfinder hierarchical = new HierarchicalPathfinder(generator.roomGraph());
+
+                for (int i = 0; i < PAIRS; i++) {
+                    int from = cells[(int) ((i * 7919L) % cells.length)];
+                    int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+                    int length = bfs.findPath(from, to) ? bfs.pathLength() : -1;
+                    for (int e = 0; e < engines.length; e++) {
+                        int found = engines[e].findPath(from, to) ? engines[e].pathLength() : -1;
+                        if (found != length) {
+                            SelfCheck.fail(names[e] + " found " + found + " steps where BFS found " + length
+                                    + " on " + size[0] + "x" + size[1] + " seed " + seed);
+                        }
+                    }
+                    hierarchical.findPath(from, to);
+                    if (length >= 0 && hierarchical.distance() != length) {
+                        SelfCheck.fail("hierarchical distance " + hierarchical.distance() + " where BFS found "
+                                + length + " on " + size[0] + "x" + size[1] + " seed " + seed);
+                    }
+                    searches++;
+                }
+            }
+        }
+        return searches + " searches agreed with BFS in " + (names.length + 1) + " engines";
+    }
+}
@@ -0,0 +1,699 @@
+package demo;
+
+import core.AStar;
+import core.ActorStore;
+import core.BidirectionalSearch;
+import core.BoundedSearch;
+import core.Coords;
+import core.FlowField;
+import core.GridSearch;
+import core.HierarchicalPathfinder;
+import core.JumpPointSearch;
+import core.LandmarkOracle;
+import core.Hug;
+import core.NavGrid;
+import core.OccupancyGrid;
+import core.PathMode;
+import core.Pathfinder;
+import core.SlicedPathPlanner;
+import core.World;
+import core.WorldGenerator;
+import tileengine.ArrayTileGrid;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the Hug pathfinding code against generated worlds and prints how long searches
+ * take and how many bytes they allocate. Run it from the command line; it needs no window.
+ * It only measures; SelfCheck checks that the results are right.
+ */
+public class PathfindingBenchmark {
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 40;
+    private static final long SEED = 2873123;
+    private static final int WARMUP = 20000;
+    private static final int SEARCHES = 5000;
+    private static final int[] HUG_COUNTS = {1, 5, 100, 10000};
+    private static final int TICKS = 50;
+    private static final int[][] SIZES = {{80, 40}, {160, 80}, {320, 160}};
+    private static final int SEEDS = 20;
+    private static final int PAIRS = 200;
+    private static final int[][] LARGE_SIZES = {{80, 40}, {250, 250}, {1000, 1000}};
+    private static final int CHASE_TICKS = 2000;
+    private static final int SLICE_NODES = 500;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int CROWD = 1000;
+    private static final int CROWD_TICKS = 20;
+    private static final int[] COOPERATIVE_HUGS = {10, 100, 1000, 3000};
+    private static final int COOPERATIVE_TICKS = 50;
+    private static final int QUALITY_SEEDS = 3;
+    private static final int QUALITY_PAIRS = 20;
+    private static final int SEARCH_RADIUS = 24;
+    private static final int ACTORS = 100_000;
+    private static final int ACTOR_WORLD = 1000;
+    private static final int ACTOR_TICKS = 20;
+    private static final int RADIUS_QUERIES = 10000;
+    private static final int QUERY_RADIUS = 8;
+    private static final int SPARSE_WORLD = 2000;
+    private static final int FLOOR_PICKS = 100000;
+    private static final int REPAIR_TICKS = 4000;
+    private static final int MAX_TOGGLES = 4;
+    private static final int GOAL_MOVE_TICKS = 200;
+
+    private static final long[] lastChaseTicks = new long[CHASE_TICKS];
+    private static long lastCrowdNanos;
+
+    public static void main(String[] args) {
+        bfsSearches();
+        hugScaling();
+        flowFieldRepair();
+        engineComparison();
+        hierarchicalScaling();
+        slicedFrameTime();
+        parallelTicks();
+        cooperativeScaling();
+        actorStore();
+        floorSampling();
+        searchModes();
+        landmarkHeuristic();
+    }
+
+    /** Times BFS between floor cells once warmed up and prints what the searches allocated. */
+    private static void bfsSearches() {
+        TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, SEED).generateWorld();
+        NavGrid nav = new NavGrid(tiles);
+        GridSearch search = new GridSearch(nav);
+        int[] cells = floorCells(tiles, nav);
+
+        runSearches(search, cells, WARMUP);
+
+        long overhead = -allocatedBytes() + allocatedBytes();
+        long start = System.nanoTime();
+        long bytesBefore = allocatedBytes();
+        long expanded = runSearches(search, cells, SEARCHES);
+        long bytes = allocatedBytes() - bytesBefore - overhead;
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("BFS searches:        " + SEARCHES);
+        System.out.println("avg nodes expanded:  " + expanded / SEARCHES);
+        System.out.println("avg time per search: " + elapsed / SEARCHES + " ns");
+        System.out.println("bytes allocated:     " + bytes);
+    }
+
+    /**
+     * Compares one BFS per Hug against a single shared flow field, per tick, as the number
+     * of Hugs chasing the player grows.
+     */
+    private static void hugScaling() {
+        TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, SEED).generateWorld();
+        NavGrid nav = new NavGrid(tiles);
+        GridSearch search = new GridSearch(nav);
+        FlowField field = new FlowField(nav);
+        int[] cells = floorCells(tiles, nav);
+
+        int[] warmupHugs = {cells[0]};
+        perHugTick(search, cells, warmupHugs, WARMUP / 10);
+        sharedFieldTick(field, cells, warmupHugs, WARMUP / 10);
+
+        System.out.println();
+        System.out.println("hugs      per-hug BFS (ns/tick)   shared field (ns/tick)");
+        for (int hugCount : HUG_COUNTS) {
+            int[] hugs = new int[hugCount];
+            for (int i = 0; i < hugCount; i++) {
+                hugs[i] = cells[(int) ((i * 7919L + 1) % cells.length)];
+            }
+
+            perHugTick(search, cells, hugs, TICKS);
+            long start = System.nanoTime();
+            perHugTick(search, cells, hugs, TICKS);
+            long perHug = (System.nanoTime() - start) / TICKS;
+
+            sharedFieldTick(field, cells, hugs, TICKS);
+            start = System.nanoTime();
+            sharedFieldTick(field, cells, hugs, TICKS);
+            long shared = (System.nanoTime() - start) / TICKS;
+
+            System.out.printf("%-9d %-23d %d%n", hugCount, perHug, shared);
+        }
+    }
+
+    /**
+     * Opens and closes random cells every tick and times repairing a flow field against
+     * building one from scratch. The goal stays put for GOAL_MOVE_TICKS at a time so most
+     * ticks go through the incremental repair.
+     */
+    private static void flowFieldRepair() {
+        long[] nodes = new long[2];
+        long[] nanos = new long[2];
+        long ticks = 0;
+        for (long seed = 1; seed <= QUALITY_SEEDS; seed++) {
+            TileGrid tiles = new WorldGenerator(WIDTH, HEIGHT, seed).generateWorld();
+            NavGrid nav = new NavGrid(tiles);
+            FlowField repaired = new FlowField(nav);
+            FlowField rebuilt = new FlowField(nav);
+            Random random = new Random(seed);
+            int goal = floorCells(tiles, nav)[0];
+            repaired.update(goal);
+
+            for (int t = 0; t < REPAIR_TICKS; t++) {
+                if (t % GOAL_MOVE_TICKS == GOAL_MOVE_TICKS - 1) {
+                    goal = FlowFieldCheck.passableCell(nav, random);
+                }
+                int toggles = 1 + random.nextInt(MAX_TOGGLES);
+                for (int i = 0; i < toggles; i++) {
+                    int x = 1 + random.nextInt(WIDTH - 2);
+                    int y = 1 + random.nextInt(HEIGHT - 2);
+                    if (nav.cell(x, y) != goal) {
+                        tiles.set(x, y, nav.passable(x, y) ? Tileset.WALL : Tileset.FLOOR);
+                        repaired.cellChanged(nav.cell(x, y));
+                    }
+                }
+                long start = System.nanoTime();
+                repaired.update(goal);
+                nanos[0] += System.nanoTime() - start;
+                nodes[0] += repaired.expanded();
+                start = System.nanoTime();
+                rebuilt.build(goal);
+                nanos[1] += System.nanoTime() - start;
+                nodes[1] += rebuilt.expanded();
+                ticks++;
+            }
+        }
+
+        System.out.println();
+        System.out.println("flow field ticks:           " + ticks);
+        System.out.println("avg nodes repair / rebuild: " + nodes[0] / ticks + " / " + nodes[1] / ticks);
+        System.out.println("avg ns repair / rebuild:    " + nanos[0] / ticks + " / " + nanos[1] / ticks);
+    }
+
+    /**
+     * Runs every point-to-point engine on the same start/goal pairs and prints the average
+     * number of nodes each one expanded and the average time per search. JPS nodes are jump
+     * points only, so the cells its scans stepped onto are printed after them for comparing
+     * with the others.
+     */
+    private static void engineComparison() {
+        String[] names = {"BFS", "A*", "JPS"};
+
+        System.out.println();
+        System.out.printf("%-10s", "size");
+        for (String name : names) {
+            System.out.printf("%-22s", name + " nodes / ns");
+        }
+        System.out.println("JPS scanned");
+
+        for (int[] size : SIZES) {
+            long[] expanded = new long[names.length];
+            long[] nanos = new long[names.length];
+            long scanned = 0;
+            long searches = 0;
+            for (long seed = 1; seed <= SEEDS; seed++) {
+                TileGrid tiles = new WorldGenerator(size[0], size[1], seed).generateWorld();
+                NavGrid nav = new NavGrid(tiles);
+                JumpPointSearch jps = new JumpPointSearch(nav);
+                Pathfinder[] engines = {new GridSearch(nav), new AStar(nav), jps};
+                int[] cells = floorCells(tiles, nav);
+
+                for (int i = 0; i < PAIRS; i++) {
+                    int from = cells[(int) ((i * 7919L) % cells.length)];
+                    int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+                    for (int e = 0; e < engines.length; e++) {
+                        long start = System.nanoTime();
+                        engines[e].findPath(from, to);
+                        nanos[e] += System.nanoTime() - start;
+                        expanded[e] += engines[e].expanded();
+                    }
+                    scanned += jps.scanned();
+                    searches++;
+                }
+            }
+
+            System.out.printf("%-10s", size[0] + "x" + size[1]);
+            for (int e = 0; e < names.length; e++) {
+                System.out.printf("%-22s", expanded[e] / searches + " / " + nanos[e] / searches);
+            }
+            System.out.println(scanned / searches);
+        }
+    }
+
+    /** Compares A* on the grid with the hierarchical pathfinder on growing maps. */
+    private static void hierarchicalScaling() {
+        System.out.println();
+        System.out.println("size        A* nodes / ns         hierarchical nodes / ns");
+        for (int[] size : LARGE_SIZES) {
+            long[] expanded = new long[2];
+            long[] nanos = new long[2];
+            long searches = 0;
+            for (long seed = 1; seed <= SEEDS / 4; seed++) {
+                WorldGenerator generator = new WorldGenerator(size[0], size[1], seed);
+                TileGrid tiles = generator.generateWorld();
+                NavGrid nav = new NavGrid(tiles);
+                AStar grid = new AStar(nav);
+                HierarchicalPathfinder hierarchical = new HierarchicalPathfinder(generator.roomGraph());
+                int[] cells = floorCells(tiles, nav);
+
+                for (int i = 0; i < PAIRS; i++) {
+                    int from = cells[(int) ((i * 7919L) % cells.length)];
+                    int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+                    long start = System.nanoTime();
+                    grid.findPath(from, to);
+                    nanos[0] += System.nanoTime() - start;
+                    start = System.nanoTime();
+                    hierarchical.findPath(from, to);
+                    nanos[1] += System.nanoTime() - start;
+                    expanded[0] += grid.expanded();
+                    expanded[1] += hierarchical.expanded();
+                    searches++;
+                }
+            }
+            System.out.printf("%-11s %-21s %s%n", size[0] + "x" + size[1],
+                    expanded[0] / searches + " / " + nanos[0] / searches,
+                    expanded[1] / searches + " / " + nanos[1] / searches);
+        }
+    }
+
+    /**
+     * Plays the same chase on a large map with one A* search per Hug per tick and with
+     * time-sliced A*, and prints how long the slowest ticks took.
+     */
+    private static void slicedFrameTime() {
+        playChase(PathMode.A_STAR);
+        playChase(PathMode.TIME_SLICED);
+
+        System.out.println();
+        System.out.println("mode          p50 ns      p99 ns      max ns      search ticks avg/max");
+        for (PathMode mode : new PathMode[]{PathMode.A_STAR, PathMode.TIME_SLICED}) {
+            World world = playChase(mode);
+            long[] ticks = Arrays.copyOf(lastChaseTicks, lastChaseTicks.length);
+            Arrays.sort(ticks);
+
+            String searchTicks = "-";
+            SlicedPathPlanner planner = world.getSlicedPlanner();
+            if (mode == PathMode.TIME_SLICED) {
+                searchTicks = String.format("%.1f / %d", planner.averageSearchTicks(), planner.maxSearchTicks());
+            }
+            System.out.printf("%-13s %-11d %-11d %-11d %s%n", mode, ticks[ticks.length / 2],
+                    ticks[ticks.length * 99 / 100], ticks[ticks.length - 1], searchTicks);
+        }
+    }
+
+    /**
+     * Moves a crowd of A* Hugs on a large map with the planning pool at several sizes and
+     * prints ticks per second, with a checksum of where the Hugs ended up.
+     */
+    private static void parallelTicks() {
+        System.out.println();
+        System.out.println("cores available: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads   ticks/s     checksum");
+        runCrowd(null);
+
+        for (int threads : THREAD_COUNTS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long checksum = runCrowd(pool);
+            pool.shutdown();
+            System.out.printf("%-9d %-11.1f %016x%n", threads, CROWD_TICKS * 1e9 / lastCrowdNanos, checksum);
+        }
+    }
+
+    private static long runCrowd(ForkJoinPool pool) {
+        TileGrid tiles = new WorldGenerator(250, 250, SEED).generateWorld();
+        World world = new World(tiles, SEED);
+        world.setPathMode(PathMode.A_STAR);
+        world.setAiPool(pool);
+        for (int i = 0; i < CROWD; i++) {
+            world.addHug(new Hug(world.randomFloorTile(true)));
+        }
+
+        Random random = new Random(SEED);
+        lastCrowdNanos = 0;
+        for (int t = 0; t < CROWD_TICKS; t++) {
+            int dir = random.nextInt(4);
+            world.movePlayer(dir == 0 ? 1 : dir == 1 ? -1 : 0, dir == 2 ? 1 : dir == 3 ? -1 : 0);
+            long start = System.nanoTime();
+            world.moveHugs();
+            lastCrowdNanos += System.nanoTime() - start;
+        }
+
+        long checksum = 0;
+        ActorStore actors = world.getActors();
+        for (int slot = 0; slot < actors.size(); slot++) {
+            if (actors.kind(slot) == ActorStore.HUG) {
+                checksum = checksum * 31 + actors.x(slot);
+                checksum = checksum * 31 + actors.y(slot);
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Runs growing crowds of cooperative Hugs on a large map and prints the planning cost per
+     * Hug, which should stay flat, next to how many Hugs moved each tick.
+     */
+    private static void cooperativeScaling() {
+        System.out.println();
+        System.out.println("hugs      ns/tick       ns/hug     nodes/hug   moved/tick");
+        for (int pass = 0; pass < 2; pass++) {
+            for (int hugCount : COOPERATIVE_HUGS) {
+                TileGrid tiles = new WorldGenerator(1000, 1000, SEED).generateWorld();
+                World world = new World(tiles, SEED);
+                world.setPathMode(PathMode.COOPERATIVE);
+                for (int i = 0; i < hugCount; i++) {
+                    world.addHug(new Hug(world.randomFloorTile()));
+                }
+
+                long elapsed = 0;
+                long nodes = 0;
+                long moved = 0;
+                ActorStore actors = world.getActors();
+                long[] before = new long[actors.size()];
+                Random random = new Random(SEED);
+                for (int t = 0; t < COOPERATIVE_TICKS; t++) {
+                    int dir = random.nextInt(4);
+                    world.movePlayer(dir == 0 ? 1 : dir == 1 ? -1 : 0, dir == 2 ? 1 : dir == 3 ? -1 : 0);
+                    for (int slot = 0; slot < actors.size(); slot++) {
+                        before[slot] = Coords.pack(actors.x(slot), actors.y(slot));
+                    }
+                    long start = System.nanoTime();
+                    world.moveHugs();
+                    elapsed += System.nanoTime() - start;
+                    nodes += world.getCooperativePlanner().expanded();
+                    for (int slot = 0; slot < actors.size(); slot++) {
+                        if (actors.kind(slot) == ActorStore.HUG
+                                && Coords.pack(actors.x(slot), actors.y(slot)) != before[slot]) {
+                            moved++;
+                        }
+                    }
+                }
+                if (pass == 1) {
+                    long perTick = elapsed / COOPERATIVE_TICKS;
+                    System.out.printf("%-9d %-13d %-10d %-11d %.1f%n", hugCount, perTick, perTick / hugCount,
+                            nodes / COOPERATIVE_TICKS / hugCount, (double) moved / COOPERATIVE_TICKS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills an open floor with ACTORS Hugs, half of them stepping every other tick, and prints
+     * what adding them allocated and what a tick costs, then removes and re-adds half of them
+     * in random order and times radius queries on the occupancy grid.
+     */
+    private static void actorStore() {
+        ArrayTileGrid tiles = new ArrayTileGrid(ACTOR_WORLD, ACTOR_WORLD);
+        tiles.fill(Tileset.FLOOR);
+        World world = new World(tiles, SEED);
+        int[] handles = new int[ACTORS];
+        long bytesBefore = allocatedBytes();
+        for (int i = 0; i < ACTORS; i++) {
+            int cell = (int) ((i * 7919L + 1) % ((long) ACTOR_WORLD * ACTOR_WORLD));
+            handles[i] = world.addHug(cell / ACTOR_WORLD, cell % ACTOR_WORLD, 1 + i % 2);
+        }
+        long addBytes = allocatedBytes() - bytesBefore;
+        ActorStore actors = world.getActors();
+
+        world.moveHugs();
+        long start = System.nanoTime();
+        for (int t = 0; t < ACTOR_TICKS; t++) {
+            world.moveHugs();
+        }
+        long tick = (System.nanoTime() - start) / ACTOR_TICKS;
+
+        Random random = new Random(SEED);
+        start = System.nanoTime();
+        for (int i = 0; i < ACTORS / 2; i++) {
+            int k = random.nextInt(ACTORS);
+            int slot = actors.slot(handles[k]);
+            int x = actors.x(slot);
+            int y = actors.y(slot);
+            world.removeHug(handles[k]);
+            handles[k] = world.addHug(x, y, 1);
+        }
+        long churn = (System.nanoTime() - start) / (ACTORS / 2);
+
+        OccupancyGrid occupancy = world.getOccupancy();
+        int[] found = new int[ACTORS];
+        long foundTotal = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < RADIUS_QUERIES; i++) {
+            foundTotal += occupancy.within(random.nextInt(ACTOR_WORLD), random.nextInt(ACTOR_WORLD),
+                    QUERY_RADIUS, found);
+        }
+        long query = (System.nanoTime() - start) / RADIUS_QUERIES;
+
+        System.out.println();
+        System.out.println("actors:              " + actors.size());
+        System.out.println("bytes per add:       " + addBytes / ACTORS);
+        System.out.println("store bytes:         " + actors.memoryBytes());
+        System.out.println("ns per tick:         " + tick);
+        System.out.println("ns per remove + add: " + churn);
+        System.out.printf("ns per radius-%d query: %d (%.1f actors found)%n", QUERY_RADIUS, query,
+                (double) foundTotal / RADIUS_QUERIES);
+    }
+
+    /**
+     * Times random floor picks on a map that is almost all void, with one small room for the
+     * player and a second room it cannot reach, where sampling the whole map would take about
+     * a hundred thousand draws per pick.
+     */
+    private static void floorSampling() {
+        ArrayTileGrid tiles = new ArrayTileGrid(SPARSE_WORLD, SPARSE_WORLD);
+        tiles.fill(Tileset.WALL);
+        for (int x = 1; x < 7; x++) {
+            for (int y = 1; y < 7; y++) {
+                tiles.set(x, y, Tileset.FLOOR);
+                tiles.set(SPARSE_WORLD - 1 - x, SPARSE_WORLD - 1 - y, Tileset.FLOOR);
+            }
+        }
+        World world = new World(tiles, SEED);
+
+        long sum = 0;
+        for (int i = 0; i < FLOOR_PICKS; i++) {
+            sum += world.randomFloorCell(i % 2 == 0);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FLOOR_PICKS; i++) {
+            sum += world.randomFloorCell(false);
+        }
+        long anyFloor = (System.nanoTime() - start) / FLOOR_PICKS;
+        start = System.nanoTime();
+        for (int i = 0; i < FLOOR_PICKS; i++) {
+            sum += world.randomFloorCell(true);
+        }
+        long reachable = (System.nanoTime() - start) / FLOOR_PICKS;
+
+        System.out.println();
+        System.out.printf("floor picks on %dx%d with 72 floor tiles (checksum %d)%n", SPARSE_WORLD, SPARSE_WORLD, sum);
+        System.out.println("ns per pick:         " + anyFloor);
+        System.out.println("ns per reachable:    " + reachable);
+    }
+
+    /**
+     * Compares plain, bidirectional and bounded-radius BFS. For the bounded search, a Hug
+     * walks from each start by taking the first step of a fresh search every tick, and the
+     * quality column is the shortest path length divided by the steps that walk took.
+     */
+    private static void searchModes() {
+        String[] names = {"BFS", "bidirectional", "bounded r=" + SEARCH_RADIUS};
+
+        System.out.println();
+        System.out.printf("%-11s", "size");
+        for (String name : names) {
+            System.out.printf("%-33s", name + " nodes/ns/quality");
+        }
+        System.out.println();
+
+        for (int[] size : LARGE_SIZES) {
+            long[] expanded = new long[names.length];
+            long[] nanos = new long[names.length];
+            long searches = 0;
+            long optimalSteps = 0;
+            long walkedSteps = 0;
+            for (long seed = 1; seed <= QUALITY_SEEDS; seed++) {
+                WorldGenerator generator = new WorldGenerator(size[0], size[1], seed);
+                TileGrid tiles = generator.generateWorld();
+                NavGrid nav = new NavGrid(tiles);
+                BoundedSearch bounded = new BoundedSearch(nav, generator.roomGraph(), SEARCH_RADIUS);
+                Pathfinder[] engines = {new GridSearch(nav), new BidirectionalSearch(nav), bounded};
+                int[] cells = floorCells(tiles, nav);
+
+                for (int i = 0; i < QUALITY_PAIRS; i++) {
+                    int from = cells[(int) ((i * 7919L) % cells.length)];
+                    int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+                    int length = -1;
+                    for (int e = 0; e < engines.length; e++) {
+                        long start = System.nanoTime();
+                        boolean found = engines[e].findPath(from, to);
+                        nanos[e] += System.nanoTime() - start;
+                        expanded[e] += engines[e].expanded();
+                        if (e == 0) {
+                            length = found ? engines[e].pathLength() : -1;
+                        }
+                    }
+                    searches++;
+                    if (length > 0) {
+                        optimalSteps += length;
+                        walkedSteps += walk(bounded, from, to, length * 4 + 100);
+                    }
+                }
+            }
+
+            System.out.printf("%-11s", size[0] + "x" + size[1]);
+            for (int e = 0; e < names.length; e++) {
+                double quality = e < 2 ? 1.0 : (double) optimalSteps / walkedSteps;
+                System.out.printf("%-33s", expanded[e] / searches + " / " + nanos[e] / searches
+                        + " / " + String.format("%.2f", quality));
+            }
+            System.out.println();
+        }
+    }
+
+    /** Steps taken to reach goal following engine one step at a time, or limit if it never does. */
+    private static int walk(Pathfinder engine, int from, int goal, int limit) {
+        int cell = from;
+        for (int steps = 0; steps < limit; steps++) {
+            if (cell == goal) {
+                return steps;
+            }
+            if (!engine.findPath(cell, goal) || engine.pathLength() == 0) {
+                return limit;
+            }
+            cell = engine.pathCell(0);
+        }
+        return limit;
+    }
+
+    /**
+     * Builds a landmark oracle per world, prints its build time, size and reload time, and
+     * compares A* with the Manhattan heuristic against A* with the landmark heuristic.
+     */
+    private static void landmarkHeuristic() {
+        System.out.println();
+        System.out.println("size        build ms   memory       reload ms   A* nodes / ns         ALT nodes / ns");
+        for (int[] size : LARGE_SIZES) {
+            long buildNanos = 0;
+            long reloadNanos = 0;
+            long memory = 0;
+            long[] expanded = new long[2];
+            long[] nanos = new long[2];
+            long searches = 0;
+            for (long seed = 1; seed <= QUALITY_SEEDS; seed++) {
+                TileGrid tiles = new WorldGenerator(size[0], size[1], seed).generateWorld();
+                NavGrid nav = new NavGrid(tiles);
+                int[] cells = floorCells(tiles, nav);
+                long start = System.nanoTime();
+                LandmarkOracle oracle = LandmarkOracle.build(nav, cells[0], LandmarkOracle.DEFAULT_LANDMARKS,
+                        ForkJoinPool.commonPool());
+                buildNanos += System.nanoTime() - start;
+                memory = oracle.memoryBytes();
+
+                byte[] bytes = oracle.toBytes();
+                start = System.nanoTime();
+                LandmarkOracle reloaded = LandmarkOracle.fromBytes(bytes, nav);
+                reloadNanos += System.nanoTime() - start;
+
+                Pathfinder[] engines = {new AStar(nav), new AStar(nav, reloaded)};
+                for (int i = 0; i < PAIRS; i++) {
+                    int from = cells[(int) ((i * 7919L) % cells.length)];
+                    int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+                    for (int e = 0; e < engines.length; e++) {
+                        start = System.nanoTime();
+                        engines[e].findPath(from, to);
+                        nanos[e] += System.nanoTime() - start;
+                        expanded[e] += engines[e].expanded();
+                    }
+                    searches++;
+                }
+            }
+
+            System.out.printf("%-11s %-10d %-12d %-11d %-21s %s%n", size[0] + "x" + size[1],
+                    buildNanos / QUALITY_SEEDS / 1_000_000, memory, reloadNanos / QUALITY_SEEDS / 1_000_000,
+                    expanded[0] / searches + " / " + nanos[0] / searches,
+                    expanded[1] / searches + " / " + nanos[1] / searches);
+        }
+    }
+
+    private static World playChase(PathMode mode) {
+        TileGrid tiles = new WorldGenerator(1000, 1000, SEED).generateWorld();
+        World world = new World(tiles, SEED);
+        world.setPathMode(mode);
+        world.setSearchBudget(SLICE_NODES, 0);
+        for (int i = 0; i < 5; i++) {
+            world.addHug(new Hug(world.randomFloorTile(true)));
+        }
+
+        Random random = new Random(SEED);
+        for (int t = 0; t < CHASE_TICKS; t++) {
+            int dir = random.nextInt(4);
+            world.movePlayer(dir == 0 ? 1 : dir == 1 ? -1 : 0, dir == 2 ? 1 : dir == 3 ? -1 : 0);
+            long start = System.nanoTime();
+            world.moveHugs();
+            lastChaseTicks[t] = System.nanoTime() - start;
+        }
+        return world;
+    }
+
+    private static int perHugTick(GridSearch search, int[] cells, int[] hugs, int ticks) {
+        int moved = 0;
+        for (int t = 0; t < ticks; t++) {
+            int player = cells[(t * 31) % cells.length];
+            for (int hug : hugs) {
+                if (search.findPath(hug, player) && search.pathLength() > 0) {
+                    moved += search.pathCell(0);
+                }
+            }
+        }
+        return moved;
+    }
+
+    private static int sharedFieldTick(FlowField field, int[] cells, int[] hugs, int ticks) {
+        int moved = 0;
+        for (int t = 0; t < ticks; t++) {
+            field.build(cells[(t * 31) % cells.length]);
+            for (int hug : hugs) {
+                moved += field.nextStep(hug);
+            }
+        }
+        return moved;
+    }
+
+    private static long runSearches(GridSearch search, int[] cells, int count) {
+        long expanded = 0;
+        for (int i = 0; i < count; i++) {
+            int from = cells[(int) ((i * 7919L) % cells.length)];
+            int to = cells[(int) ((i * 104729L + 13) % cells.length)];
+            search.findPath(from, to);
+            expanded += search.expanded();
+        }
+        return expanded;
+    }
+
+    static int[] floorCells(TileGrid tiles, NavGrid nav) {
+        List<Integer> found = new ArrayList<>();
+        for (int x = 0; x < nav.width(); x++) {
+            for (int y = 0; y < nav.height(); y++) {
+                if (tiles.get(x, y) == Tileset.FLOOR) {
+                    found.add(nav.cell(x, y));
+                }
+            }
+        }
+        int[] cells = new int[found.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = found.get(i);
+        }
+        return cells;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,72 @@
+package demo;
+
+import core.Hallway;
+import core.Room;
+import core.RoomConnection;
+import core.RoomPlacement;
+import core.WorldGenerator;
+
+/**
+ * Generates LEGACY worlds with more and more rooms, with each RoomPlacement and
+ * RoomConnection, on maps sized to give every room the same number of tiles, and prints how
+ * long each takes, how many rooms were placed and how many hallway tiles join them. At the
+ * default 80 tiles per room rejection sampling still places nearly every room; at 40 it falls
+ * well short while BSP still places them all.
+ *
+ * Usage: {@code java demo.RoomScalingBenchmark [maxRooms] [tilesPerRoom]}.
+ */
+public class RoomScalingBenchmark {
+
+    private static final int DEFAULT_MAX_ROOMS = 100_000;
+    private static final int DEFAULT_TILES_PER_ROOM = 80;
+    private static final long SEED = 2873123;
+
+    public static void main(String[] args) {
+        int maxRooms = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_ROOMS;
+        int tilesPerRoom = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TILES_PER_ROOM;
+
+        for (RoomPlacement placement : RoomPlacement.values()) {
+            for (RoomConnection connection : RoomConnection.values()) {
+                generate(1000, tilesPerRoom, placement, connection);
+            }
+        }
+        System.out.printf("%-9s %-11s %-11s %-9s %-15s %-13s %-10s %s%n", "rooms", "placement", "connection",
+                "placed", "hallway tiles", "map", "ms", "checksum");
+        for (int rooms = 100; rooms <= maxRooms; rooms *= 10) {
+            int side = side(rooms, tilesPerRoom);
+            for (RoomPlacement placement : RoomPlacement.values()) {
+                for (RoomConnection connection : RoomConnection.values()) {
+                    long start = System.nanoTime();
+                    WorldGenerator generator = generate(rooms, tilesPerRoom, placement, connection);
+                    long elapsed = System.nanoTime() - start;
+                    long checksum = 0;
+                    for (Room room : generator.getRooms()) {
+                        checksum = checksum * 31 + room.getX() * 100003L + room.getY();
+                    }
+                    long hallwayTiles = 0;
+                    for (Hallway hallway : generator.getHallways()) {
+                        hallwayTiles += hallway.size();
+                    }
+                    System.out.printf("%-9d %-11s %-11s %-9d %-15d %-13s %-10d %016x%n", rooms, placement,
+                            connection, generator.getRooms().size(), hallwayTiles, side + "x" + side,
+                            elapsed / 1_000_000, checksum);
+                }
+            }
+        }
+    }
+
+    private static WorldGenerator generate(int rooms, int tilesPerRoom, RoomPlacement placement,
+                                           RoomConnection connection) {
+        int side = side(rooms, tilesPerRoom);
+        WorldGenerator generator = new WorldGenerator(side, side, SEED);
+        generator.setRoomCount(rooms, rooms + 1);
+        generator.setRoomPlacement(placement);
+        generator.setRoomConnection(connection);
+        generator.generateWorld();
+        return generator;
+    }
+
+    private static int side(int rooms, int tilesPerRoom) {
+        return (int) Math.sqrt((double) rooms * tilesPerRoom);
+    }
+}
@@ -0,0 +1,267 @@
+package demo;
+
+import core.AStar;
+import core.BidirectionalSearch;
+import core.BoundedSearch;
+import core.GridSearch;
+import core.HierarchicalPathfinder;
+import core.JumpPointSearch;
+import core.LandmarkOracle;
+import core.NavGrid;
+import core.Pathfinder;
+import core.Position;
+import core.RoomGraph;
+import core.WorldGenerator;
+import tileengine.TileGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Measures every pathfinding engine on worlds from WorldGenerator over a fixed set of seeds
+ * and sizes, from the game's 80x40 up to 4096x4096, and prints per-search latency
+ * percentiles, nodes expanded and bytes allocated. The first engine is the BFS that
+ * World.moveHugs ran before any of the others existed, as a baseline. JPS expands only jump
+ * points, so its nodes are not comparable with the other engines'; the scanned column gives
+ * the cells its scans stepped onto, and is blank for engines that do not scan.
+ *
+ * Runs are set up the way JMH would: each engine and size runs in FORKS fresh JVMs, so one
+ * engine's JIT profile cannot slow another's, and on every seed's world each fork runs
+ * WARMUP_ITERATIONS unmeasured iterations of the same searches before MEASURED_ITERATIONS
+ * measured ones. Each fork prints a line: the mean is given with the standard deviation of
+ * the per-iteration means in the +/- column, and the percentiles are over every measured
+ * search.
+ *
+ * Sizes can be given as arguments, for example {@code java demo.SearchBenchmark 80x40 1024x1024};
+ * with none, every size in SIZES is run.
+ */
+public class SearchBenchmark {
+
+    private static final int[][] SIZES = {{80, 40}, {256, 256}, {1024, 1024}, {4096, 4096}};
+    private static final long[] SEEDS = {2873123, 42, 1337};
+    private static final int PAIRS = 40;
+    private static final int FORKS = 2;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int BOUNDED_RADIUS = 24;
+
+    /** A named way to make an engine for one generated world. */
+    private record Engine(String name, Function<Generated, Pathfinder> factory) {
+    }
+
+    /** What an engine may need from a generated world. */
+    private record Generated(NavGrid nav, WorldGenerator generator, int anchor) {
+    }
+
+    private static final List<Engine> ENGINES = List.of(
+            new Engine("baseline BFS", map -> new BaselineSearch(map.nav())),
+            new Engine("BFS", map -> new GridSearch(map.nav())),
+            new Engine("bidirectional", map -> new BidirectionalSearch(map.nav())),
+            new Engine("bounded", map -> new BoundedSearch(map.nav(), map.generator().roomGraph(), BOUNDED_RADIUS)),
+            new Engine("A*", map -> new AStar(map.nav())),
+            new Engine("A* + landmarks", map -> new AStar(map.nav(), LandmarkOracle.build(map.nav(), map.anchor(),
+                    LandmarkOracle.DEFAULT_LANDMARKS, ForkJoinPool.commonPool()))),
+            new Engine("JPS", map -> new JumpPointSearch(map.nav())),
+            new Engine("hierarchical", map -> new HierarchicalPathfinder(map.generator().roomGraph()))
+    );
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 2 && isEngine(args[0])) {
+            int[] size = parseSize(args[1]);
+            measure(size[0], size[1], ENGINES.get(Integer.parseInt(args[0])));
+            return;
+        }
+
+        List<int[]> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(parseSize(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(Arrays.asList(SIZES));
+        }
+
+        System.out.printf("%-11s %-16s %-12s %-12s %-12s %-10s %-10s %-10s %s%n",
+                "size", "engine", "p50 ns", "p99 ns", "mean ns", "+/- ns", "nodes", "scanned", "bytes/search");
+        for (int[] size : sizes) {
+            for (int engine = 0; engine < ENGINES.size(); engine++) {
+                for (int fork = 0; fork < FORKS; fork++) {
+                    fork(engine, size[0] + "x" + size[1]);
+                }
+            }
+        }
+    }
+
+    private static boolean isEngine(String arg) {
+        return arg.chars().allMatch(Character::isDigit);
+    }
+
+    private static int[] parseSize(String arg) {
+        String[] parts = arg.split("x");
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    private static void fork(int engine, String size) throws IOException, InterruptedException {
+        String[] command = {
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                SearchBenchmark.class.getName(), Integer.toString(engine), size
+        };
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+        process.waitFor();
+    }
+
+    private static void measure(int width, int height, Engine engine) {
+        int iterations = SEEDS.length * MEASURED_ITERATIONS;
+        long[] latencies = new long[iterations * PAIRS];
+        double[] iterationMeans = new double[iterations];
+        long nodes = 0;
+        long scanned = 0;
+        long bytes = 0;
+        int searches = 0;
+        int iteration = 0;
+        for (long seed : SEEDS) {
+            WorldGenerator generator = new WorldGenerator(width, height, seed);
+            TileGrid tiles = generator.generateWorld();
+            NavGrid nav = new NavGrid(tiles);
+            int[] cells = PathfindingBenchmark.floorCells(tiles, nav);
+            Pathfinder search = engine.factory().apply(new Generated(nav, generator, cells[0]));
+
+            int[] from = new int[PAIRS];
+            int[] to = new int[PAIRS];
+            for (int i = 0; i < PAIRS; i++) {
+                from[i] = cells[(int) ((i * 7919L) % cells.length)];
+                to[i] = cells[(int) ((i * 104729L + 13) % cells.length)];
+            }
+            for (int round = 0; round < WARMUP_ITERATIONS; round++) {
+                for (int i = 0; i < PAIRS; i++) {
+                    search.findPath(from[i], to[i]);
+                }
+            }
+
+            long overhead = -PathfindingBenchmark.allocatedBytes() + PathfindingBenchmark.allocatedBytes();
+            for (int round = 0; round < MEASURED_ITERATIONS; round++) {
+                long iterationTotal = 0;
+                for (int i = 0; i < PAIRS; i++) {
+                    long start = System.nanoTime();
+                    long bytesBefore = PathfindingBenchmark.allocatedBytes();
+                    search.findPath(from[i], to[i]);
+                    bytes += PathfindingBenchmark.allocatedBytes() - bytesBefore - overhead;
+                    long latency = System.nanoTime() - start;
+                    latencies[searches++] = latency;
+                    iterationTotal += latency;
+                    nodes += search.expanded();
+                    if (search instanceof JumpPointSearch jps) {
+                        scanned += jps.scanned();
+                    }
+                }
+                iterationMeans[iteration++] = (double) iterationTotal / PAIRS;
+            }
+        }
+
+        double mean = 0;
+        for (double iterationMean : iterationMeans) {
+            mean += iterationMean;
+        }
+        mean /= iterations;
+        double variance = 0;
+        for (double iterationMean : iterationMeans) {
+            variance += (iterationMean - mean) * (iterationMean - mean);
+        }
+        double deviation = Math.sqrt(variance / (iterations - 1));
+
+        Arrays.sort(latencies);
+        String scans = scanned > 0 ? Long.toString(scanned / searches) : "";
+        System.out.printf("%-11s %-16s %-12d %-12d %-12.0f %-10.0f %-10d %-10s %d%n", width + "x" + height,
+                engine.name(), latencies[latencies.length / 2], latencies[latencies.length * 99 / 100],
+                mean, deviation, nodes / searches, scans, bytes / searches);
+    }
+
+    /**
+     * The BFS World.moveHugs ran before the engines above were written: fresh visited and
+     * parent arrays and a new Position for every tile reached, on every search.
+     */
+    private static final class BaselineSearch implements Pathfinder {
+
+        private static final int[] DIFF_X = {1, -1, 0, 0};
+        private static final int[] DIFF_Y = {0, 0, 1, -1};
+
+        private final NavGrid nav;
+        private List<Position> path = new ArrayList<>();
+        private int expanded;
+
+        BaselineSearch(NavGrid nav) {
+            this.nav = nav;
+        }
+
+        @Override
+        public boolean findPath(int startCell, int goalCell) {
+            Position start = new Position(nav.x(startCell), nav.y(startCell));
+            Position goal = new Position(nav.x(goalCell), nav.y(goalCell));
+            boolean[][] visited = new boolean[nav.width()][nav.height()];
+            Position[][] prev = new Position[nav.width()][nav.height()];
+
+            ArrayList<Position> queue = new ArrayList<>();
+            queue.add(start);
+            visited[start.getX()][start.getY()] = true;
+
+            int index = 0;
+            boolean found = false;
+            while (index < queue.size()) {
+                Position currently = queue.get(index++);
+                if (currently.same(goal)) {
+                    found = true;
+                    break;
+                }
+                for (int i = 0; i < 4; i++) {
+                    int newx = currently.getX() + DIFF_X[i];
+                    int newy = currently.getY() + DIFF_Y[i];
+                    if (!nav.inBounds(newx, newy) || visited[newx][newy] || !nav.passable(newx, newy)) {
+                        continue;
+                    }
+                    visited[newx][newy] = true;
+                    prev[newx][newy] = currently;
+                    queue.add(new Position(newx, newy));
+                }
+            }
+            expanded = index;
+
+            path = new ArrayList<>();
+            if (!found) {
+                return false;
+            }
+            for (Position step = goal; !step.same(start); step = prev[step.getX()][step.getY()]) {
+                path.add(step);
+            }
+            return true;
+        }
+
+        @Override
+        public int pathLength() {
+            return path.size();
+        }
+
+        @Override
+        public int pathCell(int i) {
+            Position step = path.get(path.size() - 1 - i);
+            return nav.cell(step.getX(), step.getY());
+        }
+
+        @Override
+        public int expanded() {
+            return expanded;
+        }
+    }
+}
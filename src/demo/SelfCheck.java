@@ -0,0 +1,67 @@
+package demo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs the pass/fail checks on the pathfinding and world code and exits with status 1 if any
+ * failed. Each check runs on its own, so one that fails is reported and the rest still run.
+ * Timings are left to PathfindingBenchmark and SearchBenchmark.
+ *
+ * Usage: {@code java demo.SelfCheck [check ...]}, naming checks by class, for example
+ * {@code java demo.SelfCheck FlowFieldCheck}; with none, every check is run.
+ */
+public class SelfCheck {
+
+    /** Thrown by a check that finds something wrong, with a message saying what. */
+    static class CheckFailed extends RuntimeException {
+        CheckFailed(String message) {
+            super(message);
+        }
+    }
+
+    /** A check, which returns a line saying what it verified or throws CheckFailed. */
+    private record Check(Class<?> type, Supplier<String> run) {
+    }
+
+    private static final List<Check> CHECKS = List.of(
+            new Check(AllocationCheck.class, AllocationCheck::run),
+            new Check(FlowFieldCheck.class, FlowFieldCheck::run),
+            new Check(ConnectivityCheck.class, ConnectivityCheck::run),
+            new Check(PathLengthCheck.class, PathLengthCheck::run),
+            new Check(SlicedPlannerCheck.class, SlicedPlannerCheck::run),
+            new Check(ParallelPlanningCheck.class, ParallelPlanningCheck::run),
+            new Check(FloorPickCheck.class, FloorPickCheck::run),
+            new Check(BoundedSearchCheck.class, BoundedSearchCheck::run),
+            new Check(LandmarkOracleCheck.class, LandmarkOracleCheck::run),
+            new Check(CaptureCheck.class, CaptureCheck::run)
+    );
+
+    public static void main(String[] args) {
+        int ran = 0;
+        int failed = 0;
+        for (Check check : CHECKS) {
+            String name = check.type().getSimpleName();
+            if (args.length > 0 && !Arrays.asList(args).contains(name)) {
+                continue;
+            }
+            ran++;
+            try {
+                System.out.printf("%-22s ok    %s%n", name, check.run().get());
+            } catch (RuntimeException ex) {
+                failed++;
+                System.out.printf("%-22s FAIL  %s%n", name, ex instanceof CheckFailed ? ex.getMessage() : ex);
+            }
+        }
+        System.out.println();
+        System.out.println((ran - failed) + " of " + ran + " checks passed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    static void fail(String message) {
+        throw new CheckFailed(message);
+    }
+}
@@ -0,0 +1,157 @@
+package demo;
+
+import core.ActorStore;
+import core.ConnectivityIndex;
+import core.GridSearch;
+import core.Hug;
+import core.NavGrid;
+import core.OccupancyGrid;
+import core.PathMode;
+import core.Position;
+import core.SlicedPathPlanner;
+import core.World;
+import core.WorldGenerator;
+import tileengine.ArrayTileGrid;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that time-sliced routes stay with their Hug. Hugs of mixed speeds chase a player who
+ * stands still, on a budget small enough that routes last over many ticks, and Hugs are
+ * removed and added along the way so handles are reused. Fails if a Hug steps somewhere a
+ * fresh BFS from its cell says is not one step closer, if a Hug that had a route is left
+ * LOST, or if the Hugs hardly move at all.
+ *
+ * Then checks that Hugs take turns fairly: with two Hugs due every tick and a third every
+ * other tick, as speeds 1 and 2 make them, fails if any Hug gets far fewer searches than
+ * the others.
+ */
+final class SlicedPlannerCheck {
+
+    private static final long SEED = 2873123;
+    private static final int SIZE = 250;
+    private static final int HUGS = 40;
+    private static final int TICKS = 300;
+    private static final int NODES_PER_TICK = 300;
+    private static final int MAX_SPEED = 3;
+    private static final int TURN_TICKS = 3000;
+    private static final int[] EVERY_TICK = {0, 1, 2};
+    private static final int[] ODD_TICKS = {0, 1};
+
+    static String run() {
+        TileGrid tiles = new WorldGenerator(SIZE, SIZE, SEED).generateWorld();
+        World world = new World(tiles, SEED);
+        world.setPathMode(PathMode.TIME_SLICED);
+        world.setSearchBudget(NODES_PER_TICK, 0);
+        for (int i = 0; i < HUGS; i++) {
+            Hug hug = new Hug(world.randomFloorTile(true));
+            world.addHug(hug.getX(), hug.getY(), 1 + i % MAX_SPEED);
+        }
+
+        NavGrid nav = new NavGrid(tiles);
+        GridSearch fresh = new GridSearch(nav);
+        SlicedPathPlanner planner = world.getSlicedPlanner();
+        ActorStore actors = world.getActors();
+        int goal = nav.cell(world.playerX(), world.playerY());
+        int[] handles = new int[HUGS + 1];
+        int[] cells = new int[handles.length];
+        int[] distances = new int[handles.length];
+        boolean[] routed = new boolean[handles.length];
+        int[] states = new int[handles.length];
+        Random random = new Random(SEED);
+        long steps = 0;
+        long replaced = 0;
+        for (int t = 0; t < TICKS; t++) {
+            int hugs = 0;
+            for (int slot = 0; slot < actors.size(); slot++) {
+                if (actors.kind(slot) == ActorStore.HUG) {
+                    handles[hugs] = actors.handle(slot);
+                    cells[hugs] = nav.cell(actors.x(slot), actors.y(slot));
+                    distances[hugs] = fresh.findPath(cells[hugs], goal) ? fresh.pathLength() : -1;
+                    routed[hugs] = planner.hasRoute(handles[hugs]);
+                    states[hugs] = actors.state(slot);
+                    hugs++;
+                }
+            }
+            if (world.moveHugs()) {
+                break;
+            }
+            for (int i = 0; i < hugs; i++) {
+                int slot = actors.slot(handles[i]);
+                int cell = nav.cell(actors.x(slot), actors.y(slot));
+                if (cell != cells[i]) {
+                    steps++;
+                    if (!fresh.findPath(cell, goal) || fresh.pathLength() != distances[i] - 1) {
+                        SelfCheck.fail("a time-sliced Hug stepped off a shortest path on tick " + t);
+                    }
+                } else if (routed[i] && states[i] != ActorStore.LOST && actors.state(slot) == ActorStore.LOST) {
+                    SelfCheck.fail("a time-sliced Hug lost its route on tick " + t);
+                }
+            }
+            if (t % 10 == 5) {
+                int k = random.nextInt(hugs);
+                Position spot = world.randomFloorTile(true);
+                world.removeHug(handles[k]);
+                world.addHug(spot.getX(), spot.getY(), 1 + random.nextInt(MAX_SPEED));
+                replaced++;
+            }
+        }
+
+        if (steps < HUGS) {
+            SelfCheck.fail("time-sliced Hugs took only " + steps + " steps");
+        }
+        int[] served = takeTurns();
+        return steps + " steps stayed on shortest paths with " + replaced + " Hugs replaced; searches per Hug "
+                + Arrays.toString(served);
+    }
+
+    /**
+     * Runs a planner with a budget of one node per tick, so each search spans several ticks,
+     * and fails if a Hug gets under half its share of the searches. Each route is dropped as
+     * soon as it is seen, by asking for a step from a cell off it, so the next finished search
+     * shows whose turn it was.
+     */
+    private static int[] takeTurns() {
+        ArrayTileGrid tiles = new ArrayTileGrid(20, 20);
+        tiles.fill(Tileset.FLOOR);
+        NavGrid nav = new NavGrid(tiles);
+        OccupancyGrid occupancy = new OccupancyGrid(nav);
+        int[] cells = {nav.cell(4, 10), nav.cell(10, 4), nav.cell(16, 10)};
+        for (int hug = 0; hug < cells.length; hug++) {
+            occupancy.add(hug, cells[hug]);
+        }
+        SlicedPathPlanner planner = new SlicedPathPlanner(nav, occupancy, 1, 0);
+        ConnectivityIndex connectivity = new ConnectivityIndex(nav);
+        int goal = nav.cell(10, 10);
+        int offRoute = nav.cell(0, 0);
+
+        int[] served = new int[cells.length];
+        int[] due = new int[cells.length];
+        int[] dueCells = new int[cells.length];
+        for (int t = 0; t < TURN_TICKS; t++) {
+            int[] handles = t % 2 == 0 ? EVERY_TICK : ODD_TICKS;
+            for (int i = 0; i < handles.length; i++) {
+                due[i] = handles[i];
+                dueCells[i] = cells[handles[i]];
+            }
+            planner.tick(dueCells, due, handles.length, connectivity, goal);
+            for (int hug = 0; hug < cells.length; hug++) {
+                if (planner.hasRoute(hug)) {
+                    served[hug]++;
+                    planner.nextStep(hug, offRoute);
+                }
+            }
+        }
+
+        int total = Arrays.stream(served).sum();
+        for (int hug = 0; hug < served.length; hug++) {
+            if (served[hug] * served.length * 2 < total) {
+                SelfCheck.fail("Hug " + hug + " got " + served[hug] + " of " + total + " time-sliced searches");
+            }
+        }
+        return served;
+    }
+}
@@ -0,0 +1,67 @@
+package tileengine;
+
+import java.util.Arrays;
+
+/**
+ * TileGrid on the heap, with cells laid out column by column in a single byte[]. Compared
+ * with a TETile[][] this takes a byte per cell instead of a reference, needs no column
+ * objects, and scans run over contiguous memory.
+ */
+public class ArrayTileGrid extends TileGrid {
+
+    private final byte[] ids;
+
+    /**
+     * A grid filled with Tileset.NOTHING.
+     * @throws IllegalArgumentException if the grid needs more bytes than an array can hold
+     */
+    public ArrayTileGrid(int width, int height) {
+        super(width, height);
+        long bytes = (long) width * height;
+        if (bytes > MAX_BYTES) {
+            throw new IllegalArgumentException("a " + width + "x" + height + " array grid needs " + bytes
+                    + " bytes, more than the " + MAX_BYTES + " an array holds");
+        }
+        this.ids = new byte[(int) bytes];
+        fill(Tileset.NOTHING);
+    }
+
+    private ArrayTileGrid(int width, int height, byte[] ids) {
+        super(width, height);
+        this.ids = ids;
+    }
+
+    @Override
+    public int id(int x, int y) {
+        return ids[x * height() + y];
+    }
+
+    @Override
+    public void setId(int x, int y, int id) {
+        ids[x * height() + y] = (byte) id;
+    }
+
+    @Override
+    public void fill(TETile tile) {
+        Arrays.fill(ids, (byte) tile.id());
+    }
+
+    @Override
+    public void copyTo(TileGrid target) {
+        if (target instanceof ArrayTileGrid array && array.width() == width() && array.height() == height()) {
+            System.arraycopy(ids, 0, array.ids, 0, ids.length);
+        } else {
+            super.copyTo(target);
+        }
+    }
+
+    @Override
+    public TileGrid copy() {
+        return new ArrayTileGrid(width(), height(), ids.clone());
+    }
+
+    @Override
+    public long memoryBytes() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,71 @@
+package tileengine;
+
+import java.util.Arrays;
+
+/**
+ * TileGrid stored in 8x8 blocks of 64 bytes, one cache line each, with blocks laid out column
+ * by column. A cell and its neighbours in either direction usually share a cache line, where
+ * in ArrayTileGrid a step in x jumps a whole column ahead. Widths and heights are padded up
+ * to a multiple of 8.
+ */
+public class BlockedTileGrid extends TileGrid {
+
+    private static final int SHIFT = 3;
+    private static final int MASK = (1 << SHIFT) - 1;
+
+    private final int blocksHigh;
+    private final byte[] ids;
+
+    /**
+     * A grid filled with Tileset.NOTHING.
+     * @throws IllegalArgumentException if the padded grid needs more bytes than an array can hold
+     */
+    public BlockedTileGrid(int width, int height) {
+        super(width, height);
+        this.blocksHigh = (height + MASK) >> SHIFT;
+        int blocksWide = (width + MASK) >> SHIFT;
+        long bytes = (long) blocksWide * blocksHigh << (2 * SHIFT);
+        if (bytes > MAX_BYTES) {
+            throw new IllegalArgumentException("a " + width + "x" + height + " blocked grid needs " + bytes
+                    + " bytes, more than the " + MAX_BYTES + " an array holds");
+        }
+        this.ids = new byte[(int) bytes];
+        fill(Tileset.NOTHING);
+    }
+
+    private BlockedTileGrid(BlockedTileGrid other) {
+        super(other.width(), other.height());
+        this.blocksHigh = other.blocksHigh;
+        this.ids = other.ids.clone();
+    }
+
+    private int index(int x, int y) {
+        int block = (x >> SHIFT) * blocksHigh + (y >> SHIFT);
+        return (block << (2 * SHIFT)) | ((x & MASK) << SHIFT) | (y & MASK);
+    }
+
+    @Override
+    public int id(int x, int y) {
+        return ids[index(x, y)];
+    }
+
+    @Override
+    public void setId(int x, int y, int id) {
+        ids[index(x, y)] = (byte) id;
+    }
+
+    @Override
+    public void fill(TETile tile) {
+        Arrays.fill(ids, (byte) tile.id());
+    }
+
+    @Override
+    public TileGrid copy() {
+        return new BlockedTileGrid(this);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return ids.length;
+    }
+}
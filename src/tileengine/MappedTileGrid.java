@@ -0,0 +1,137 @@
+package tileengine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * TileGrid kept in a memory-mapped file instead of on the heap, so a world can be far larger
+ * than the heap and adds nothing for the garbage collector to trace. Every write lands in the
+ * file through the page cache, so the grid persists without a save step, and reopening only
+ * maps the file again, which takes the same time whatever its size.
+ *
+ * The file is a small header (magic, width, height) followed by one byte per cell, column by
+ * column. A mapping can cover at most 2 GB, so the cells are mapped in 1 GB chunks.
+ */
+public class MappedTileGrid extends TileGrid implements Closeable {
+
+    private static final int MAGIC = 0x54475231;
+    private static final int HEADER_BYTES = 12;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedTileGrid(FileChannel channel, int width, int height) throws IOException {
+        super(width, height);
+        this.channel = channel;
+        long size = size();
+        int count = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+        this.chunks = new MappedByteBuffer[count];
+        for (int c = 0; c < count; c++) {
+            long start = (long) c << CHUNK_BITS;
+            long length = Math.min(1L << CHUNK_BITS, size - start);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + start, length);
+        }
+    }
+
+    /**
+     * Creates file, replacing anything already there, and maps a grid of the given size in it
+     * filled with Tileset.NOTHING.
+     */
+    public static MappedTileGrid create(Path file, int width, int height) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(width).putInt(height).flip();
+            channel.write(header, 0);
+            MappedTileGrid grid = new MappedTileGrid(channel, width, height);
+            grid.fill(Tileset.NOTHING);
+            return grid;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /** Maps a grid written earlier by create. */
+    public static MappedTileGrid open(Path file) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                channel.close();
+                throw new IllegalArgumentException(file + " is not a tile grid");
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (channel.size() < HEADER_BYTES + (long) width * height) {
+                channel.close();
+                throw new IllegalArgumentException(file + " is shorter than its " + width + "x" + height + " grid");
+            }
+            return new MappedTileGrid(channel, width, height);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public int id(int x, int y) {
+        long i = (long) x * height() + y;
+        return chunks[(int) (i >>> CHUNK_BITS)].get((int) (i & CHUNK_MASK));
+    }
+
+    @Override
+    public void setId(int x, int y, int id) {
+        long i = (long) x * height() + y;
+        chunks[(int) (i >>> CHUNK_BITS)].put((int) (i & CHUNK_MASK), (byte) id);
+    }
+
+    @Override
+    public void fill(TETile tile) {
+        byte id = (byte) tile.id();
+        byte[] block = new byte[1 << 16];
+        Arrays.fill(block, id);
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer view = chunk.duplicate();
+            view.clear();
+            while (view.hasRemaining()) {
+                view.put(block, 0, Math.min(block.length, view.remaining()));
+            }
+        }
+    }
+
+    @Override
+    public long memoryBytes() {
+        return size();
+    }
+
+    /** Writes every changed page back to the file now rather than when the OS chooses to. */
+    public void flush() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the file. The mappings are released when the grid is garbage
+     * collected, so the grid must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
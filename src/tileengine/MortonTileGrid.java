@@ -0,0 +1,89 @@
+package tileengine;
+
+import java.util.Arrays;
+
+/**
+ * TileGrid stored in Z-order (Morton order): the bits of x and y are interleaved to form the
+ * index, so cells close together in both directions sit close together in memory at every
+ * scale. The interleaved bits come from two small lookup tables. Space grows to the next
+ * power of two in each direction, so this suits roughly square maps, and coordinates are
+ * interleaved 16 bits at a time, so neither side may exceed MAX_SIDE.
+ */
+public class MortonTileGrid extends TileGrid {
+
+    public static final int MAX_SIDE = 1 << 16;
+
+    private final int[] spreadX;
+    private final int[] spreadY;
+    private final byte[] ids;
+
+    /**
+     * A grid filled with Tileset.NOTHING.
+     * @throws IllegalArgumentException if a side exceeds MAX_SIDE or the padded grid needs
+     *         more bytes than an array can hold
+     */
+    public MortonTileGrid(int width, int height) {
+        super(width, height);
+        if (width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("a " + width + "x" + height + " Morton grid has a side over "
+                    + MAX_SIDE);
+        }
+        this.spreadX = new int[width];
+        this.spreadY = new int[height];
+        for (int x = 0; x < width; x++) {
+            spreadX[x] = spread(x);
+        }
+        for (int y = 0; y < height; y++) {
+            spreadY[y] = spread(y) << 1;
+        }
+        long bytes = Integer.toUnsignedLong(spreadX[width - 1] | spreadY[height - 1]) + 1;
+        if (bytes > MAX_BYTES) {
+            throw new IllegalArgumentException("a " + width + "x" + height + " Morton grid needs " + bytes
+                    + " bytes, more than the " + MAX_BYTES + " an array holds");
+        }
+        this.ids = new byte[(int) bytes];
+        fill(Tileset.NOTHING);
+    }
+
+    private MortonTileGrid(MortonTileGrid other) {
+        super(other.width(), other.height());
+        this.spreadX = other.spreadX;
+        this.spreadY = other.spreadY;
+        this.ids = other.ids.clone();
+    }
+
+    /** Moves bit i of v to bit 2i. */
+    private static int spread(int v) {
+        long bits = v & 0xFFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x33333333L;
+        bits = (bits | (bits << 1)) & 0x55555555L;
+        return (int) bits;
+    }
+
+    @Override
+    public int id(int x, int y) {
+        return ids[spreadX[x] | spreadY[y]];
+    }
+
+    @Override
+    public void setId(int x, int y, int id) {
+        ids[spreadX[x] | spreadY[y]] = (byte) id;
+    }
+
+    @Override
+    public void fill(TETile tile) {
+        Arrays.fill(ids, (byte) tile.id());
+    }
+
+    @Override
+    public TileGrid copy() {
+        return new MortonTileGrid(this);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return ids.length + 4L * (spreadX.length + spreadY.length);
+    }
+}
@@ -106,6 +106,28 @@ public class TERenderer {
         }
     }
 
+    /**
+     * Like renderFrame, but for a TileGrid.
+     * @param world the grid to render
+     */
+    public void renderFrame(TileGrid world) {
+        StdDraw.clear(new Color(0, 0, 0));
+        drawTiles(world);
+        StdDraw.show();
+    }
+
+    /**
+     * Like drawTiles, but for a TileGrid.
+     * @param world the grid to render
+     */
+    public void drawTiles(TileGrid world) {
+        for (int x = 0; x < world.width(); x += 1) {
+            for (int y = 0; y < world.height(); y += 1) {
+                world.get(x, y).draw(x + xOffset, y + yOffset);
+            }
+        }
+    }
+
     /**
      * Resets the font to default settings. You should call this method before drawing any tiles
      * if you changed the pen settings.
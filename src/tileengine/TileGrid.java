@@ -0,0 +1,121 @@
+package tileengine;
+
+/**
+ * A width by height grid of tiles stored as one byte per cell: the tile's id. Tiles are read
+ * back as the shared Tileset instances, so get does not copy or allocate; colour variants
+ * made with TETile.colorVariant collapse to their base tile.
+ *
+ * Subclasses decide where the bytes live: ArrayTileGrid keeps them in a byte[] on the heap,
+ * MappedTileGrid in a memory-mapped file.
+ */
+public abstract class TileGrid {
+
+    /** The largest byte[] a JVM will reliably allocate, which bounds the heap-backed grids. */
+    static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    private final int width;
+    private final int height;
+
+    protected TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /** Copies a TETile[][] into a new ArrayTileGrid. */
+    public static TileGrid of(TETile[][] tiles) {
+        TileGrid grid = new ArrayTileGrid(tiles.length, tiles[0].length);
+        for (int x = 0; x < grid.width; x++) {
+            for (int y = 0; y < grid.height; y++) {
+                grid.set(x, y, tiles[x][y]);
+            }
+        }
+        return grid;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Number of cells, which may not fit in an int for mapped grids. */
+    public long size() {
+        return (long) width * height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /** Id of the tile at x, y. */
+    public abstract int id(int x, int y);
+
+    public abstract void setId(int x, int y, int id);
+
+    /** Bytes used to store the tiles. */
+    public abstract long memoryBytes();
+
+    /** The Tileset tile at x, y. */
+    public TETile get(int x, int y) {
+        return Tileset.byId(id(x, y));
+    }
+
+    public void set(int x, int y, TETile tile) {
+        setId(x, y, tile.id());
+    }
+
+    public void fill(TETile tile) {
+        int id = tile.id();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                setId(x, y, id);
+            }
+        }
+    }
+
+    /** Copies every tile into target, which must be the same size, without allocating. */
+    public void copyTo(TileGrid target) {
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                target.setId(x, y, id(x, y));
+            }
+        }
+    }
+
+    /** Copies this grid into a new ArrayTileGrid. */
+    public TileGrid copy() {
+        TileGrid copy = new ArrayTileGrid(width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                copy.setId(x, y, id(x, y));
+            }
+        }
+        return copy;
+    }
+
+    /** Copies this grid into a new TETile[][], for code that still needs one. */
+    public TETile[][] toArray() {
+        TETile[][] tiles = new TETile[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                tiles[x][y] = get(x, y);
+            }
+        }
+        return tiles;
+    }
+
+    /** The grid drawn as characters, in the same layout as TETile.toString. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = height - 1; y >= 0; y -= 1) {
+            for (int x = 0; x < width; x += 1) {
+                sb.append(get(x, y).character());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
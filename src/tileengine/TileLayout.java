@@ -0,0 +1,22 @@
+package tileengine;
+
+/**
+ * The ways a heap TileGrid can arrange its cells in memory.
+ */
+public enum TileLayout {
+    /** Column by column, as ArrayTileGrid. */
+    COLUMNS,
+    /** 8x8 blocks of one cache line each, as BlockedTileGrid. */
+    BLOCKED,
+    /** Z-order, as MortonTileGrid. */
+    MORTON;
+
+    /** A new grid of this layout filled with Tileset.NOTHING. */
+    public TileGrid create(int width, int height) {
+        return switch (this) {
+            case COLUMNS -> new ArrayTileGrid(width, height);
+            case BLOCKED -> new BlockedTileGrid(width, height);
+            case MORTON -> new MortonTileGrid(width, height);
+        };
+    }
+}
@@ -37,6 +37,17 @@ public class Tileset {
     public static final TETile EXIT = new TETile('E', Color.YELLOW, Color.BLACK, "exit", 13);
     public static final TETile PATH = new TETile('*', Color.YELLOW, Color.black, "path", 14);
     public static final TETile AVATAR2 = new TETile('ツ', Color.CYAN, Color.BLACK, "custom avatar", 15);
+
+    private static final TETile[] BY_ID = {AVATAR, WALL, FLOOR, NOTHING, GRASS, WATER, FLOWER,
+        LOCKED_DOOR, UNLOCKED_DOOR, SAND, MOUNTAIN, TREE, CELL, EXIT, PATH, AVATAR2};
+
+    /** The tile with the given id, or NOTHING if no tile has it. */
+    public static TETile byId(int id) {
+        if (id < 0 || id >= BY_ID.length) {
+            return NOTHING;
+        }
+        return BY_ID[id];
+    }
 }
 
 
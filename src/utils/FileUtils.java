@@ -38,6 +38,36 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Writes the specified bytes to a file with the given filename.
+     *
+     * @param filename The name of the file to write to.
+     * @param contents The bytes to write to the file.
+     * @throws RuntimeException if an IOException occurs during the write operation.
+     */
+    public static void writeBytes(String filename, byte[] contents) {
+        try {
+            Files.write(new File(filename).toPath(), contents);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Reads the bytes of a file with the given filename.
+     *
+     * @param filename The name of the file to read from.
+     * @return The contents of the file as bytes.
+     * @throws RuntimeException if an IOException occurs during the read operation.
+     */
+    public static byte[] readBytes(String filename) {
+        try {
+            return Files.readAllBytes(new File(filename).toPath());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     /**
      * Checks if a file with the given filename exists.
      *
@@ -47,4 +77,18 @@ public class FileUtils {
     public static boolean fileExists(String filename) {
         return new File(filename).exists();
     }
+
+    /**
+     * Deletes the file with the given filename, if there is one.
+     *
+     * @param filename The name of the file to delete.
+     * @throws RuntimeException if an IOException occurs during the delete operation.
+     */
+    public static void deleteFile(String filename) {
+        try {
+            Files.deleteIfExists(new File(filename).toPath());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 }
@@ -13,6 +13,8 @@ import java.util.Random;
  */
 public class RandomUtils {
 
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
     /**
      * Returns a random real number uniformly in [0, 1).
      *
@@ -527,6 +529,43 @@ public class RandomUtils {
         return perm;
     }
 
+    /**
+     * Returns the seed of the independent stream named by {@code (seed, stage, region)}.
+     * Each stage of a job, and each region within a stage, can then draw from its own
+     * generator in any order and on any thread, and still get the same numbers every time.
+     * The key is mixed with the SplitMix64 finaliser, so nearby keys give unrelated seeds.
+     *
+     * @param seed the seed of the whole job
+     * @param stage which step of the job the stream is for
+     * @param region which part of the work within that step the stream is for
+     * @return the seed of the stream
+     */
+    public static long deriveSeed(long seed, long stage, long region) {
+        long h = mix(seed);
+        h = mix(h ^ mix(stage + GOLDEN_GAMMA));
+        return mix(h ^ mix(region + 2 * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a new generator for the stream named by {@code (seed, stage, region)}, as
+     * described in {@link #deriveSeed(long, long, long)}, to use with the other methods here.
+     *
+     * @param seed the seed of the whole job
+     * @param stage which step of the job the stream is for
+     * @param region which part of the work within that step the stream is for
+     * @return a generator that only this key produces
+     */
+    public static Random stream(long seed, long stage, long region) {
+        return new Random(deriveSeed(seed, stage, region));
+    }
+
+    // SplitMix64's finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     // throw an IllegalArgumentException if x is null
     // (x can be of type Object[], double[], int[], ...)
     private static void validateNotNull(Object x) {